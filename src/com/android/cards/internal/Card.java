@@ -25,6 +25,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import com.android.cards.R;
@@ -78,6 +79,11 @@ public class Card extends BaseCard {
      */
     protected boolean mIsSwipeable = false;
 
+    /**
+     * Used to draw the card in a hardware layer while it is swiped
+     */
+    protected boolean mSwipeHardwareLayerEnabled = true;
+
     /**
      * Indicates to draw a shadow
      */
@@ -859,6 +865,28 @@ public class Card extends BaseCard {
         mIsSwipeable = isSwipeable;
     }
 
+    /**
+     * Indicates if the card is drawn in a hardware layer while it is swiped
+     *
+     * @return
+     */
+    public boolean isSwipeHardwareLayerEnabled() {
+        return mSwipeHardwareLayerEnabled;
+    }
+
+    /**
+     * Sets if the card is drawn in a hardware layer while it is swiped and while it slides out.
+     * </p>
+     * The layer is rendered once, then each frame only moves and fades it.
+     * Disable it if the content of the card animates during the swipe: the layer would be
+     * rendered again on each change.
+     *
+     * @param enabled
+     */
+    public void setSwipeHardwareLayerEnabled(boolean enabled) {
+        mSwipeHardwareLayerEnabled = enabled;
+    }
+
     /**
      * Indicates if the card is long clickable
      * If card hasn't a {@link OnLongCardClickListener}
@@ -1079,6 +1107,38 @@ public class Card extends BaseCard {
         return false;
     }
 
+    /**
+     * Returns the inner layouts of the card and of its header, thumbnail and expand (-1 if missing).
+     * It can be used to check the inner layouts of a card which is going to be changed in place.
+     *
+     * @param card
+     * @return the inner layouts, <code>null</code> if the card is <code>null</code>
+     */
+    public static int[] getInnerLayouts(Card card){
+        if (card==null) return null;
+
+        return new int[]{
+                card.getInnerLayout(),
+                card.getCardHeader()!=null ? card.getCardHeader().getInnerLayout() : -1,
+                card.getCardThumbnail()!=null ? card.getCardThumbnail().getInnerLayout() : -1,
+                card.getCardExpand()!=null ? card.getCardExpand().getInnerLayout() : -1
+        };
+    }
+
+    /**
+     * Checks if the inner layouts returned by {@link #getInnerLayouts(Card)} differ from the ones of a card.
+     * It can be used to force inner layout redraw when the card is changed in place.
+     *
+     * @param oldLayouts
+     * @param newCard
+     * @return
+     */
+    public static boolean equalsInnerLayout(int[] oldLayouts,Card newCard){
+        if (oldLayouts==null || newCard==null) return false;
+
+        return !Arrays.equals(oldLayouts, getInnerLayouts(newCard));
+    }
+
     /**
      * Refreshes the card content (it doesn't inflate layouts again)
      */
@@ -23,20 +23,24 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.os.Parcelable;
 import android.util.Log;
+import android.util.LruCache;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AbsListView;
 import android.widget.ListView;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 
 import com.android.cards.R;
 import com.android.cards.internal.base.BaseCardArrayAdapter;
 import com.android.cards.view.CardListView;
+import com.android.cards.view.base.CardViewPool;
 import com.android.cards.view.base.CardViewWrapper;
 import com.android.cards.view.CardView;
 import com.android.cards.view.listener.SwipeDismissListViewTouchListener;
@@ -103,16 +107,60 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
     protected UndoBarController mUndoBarController;
 
     /**
-     * Internal Map with all Cards.
+     * Max number of dismissed cards kept for the undo action
+     */
+    protected static final int MAX_DISMISSED_CARDS = 128;
+
+    /**
+     * Dismissed cards which can be restored by the undo action, with their position.
      * It uses the card id value as key.
+     * </p>
+     * Only the dismissed cards are kept: the other cards aren't tracked.
+     * When it is full, the oldest dismissed cards can't be restored anymore.
      */
-    protected HashMap<String /* id */,Card>  mInternalObjects;
+    protected LruCache<String /* id */,DismissedCard> mDismissedCards =
+            new LruCache<String, DismissedCard>(MAX_DISMISSED_CARDS);
+
+    /**
+     * Cards of the adapter, read through {@link #getItem(int)}
+     */
+    private final List<Card> mItems = new AbstractList<Card>() {
+        @Override
+        public Card get(int location) {
+            return getItem(location);
+        }
+
+        @Override
+        public int size() {
+            return getCount();
+        }
+    };
 
     /**
      * Dismissable Manager
      */
     protected Dismissable mDismissable;
 
+    /**
+     * Number of open batches. Notifications are coalesced while it is greater than 0.
+     */
+    protected int mBatchDepth = 0;
+
+    /**
+     * Indicates if the cards changed inside the current batch
+     */
+    private boolean mBatchChanged = false;
+
+    /**
+     * Indicates if the data was invalidated inside the current batch, for example by a filter without results
+     */
+    private boolean mBatchInvalidated = false;
+
+    /**
+     * Value of notifyOnChange set by the caller, restored when the batch is committed
+     */
+    private boolean mNotifyOnChange = true;
+
     // -------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------
@@ -150,7 +198,7 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
             //Inflate layout
             if (view == null) {
                 recycle = false;
-                view = mInflater.inflate(layout, parent, false);
+                view = inflateRowView(mInflater, layout, parent);
             } else {
                 recycle = true;
             }
@@ -183,6 +231,9 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
 
                 //setupMultiChoice
                 setupMultichoice(view,mCard,mCardView,position);
+
+                //Precompute the texts of the next cards
+                prepareTextLayouts(view, position);
             }
         }
 
@@ -282,7 +333,6 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
             // Keep track of the cards that will be removed
             final ArrayList<Card> removedCards = new ArrayList<Card>();
 
-            //Remove cards and notifyDataSetChanged
             for (int position : reverseSortedPositions) {
 
                 Card card = null;
@@ -303,15 +353,24 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
                         }
                     }*/
                     removedCards.add(card);
-                    remove(card);
-                    if (card.getOnSwipeListener() != null) {
-                        card.getOnSwipeListener().onSwipe(card);
-                    }
                 }else{
                     Log.e(TAG,"Error on swipe action. Impossible to retrieve the card from position");
                 }
             }
-            notifyDataSetChanged();
+
+            //Keep the dismissed cards for the undo action, before removing them
+            if (isEnableUndo() && mUndoBarController!=null)
+                keepDismissedCards(removedCards);
+
+            //Remove cards and notifyDataSetChanged
+            beginBatch();
+            for (Card card : removedCards) {
+                remove(card);
+                if (card.getOnSwipeListener() != null) {
+                    card.getOnSwipeListener().onSwipe(card);
+                }
+            }
+            commit();
 
             //Check for a undo message to confirm
             if (isEnableUndo() && mUndoBarController!=null){
@@ -342,14 +401,18 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
                         new UndoBarController.UndoBarHideListener() {
                             @Override
                             public void onUndoBarHide(boolean undoOccurred) {
-                                // Remove the items from mInternalObjects, if
+                                // Forget the dismissed cards, if
                                 // the undo was not triggered, since they are
                                 // now permanently removed from the underlying Array.
                                 if (!undoOccurred) {
                                     for (Card card : removedCards) {
                                         if (card.getOnUndoHideSwipeListListener()!=null)
                                             card.getOnUndoHideSwipeListListener().onUndoHideSwipe(card);
-                                        mInternalObjects.remove(card.getId());
+                                        if (card.getId() != null) {
+                                            DismissedCard dismissed = mDismissedCards.get(card.getId());
+                                            if (dismissed != null && dismissed.card == card)
+                                                mDismissedCards.remove(card.getId());
+                                        }
                                     }
                                 }
                             }
@@ -364,36 +427,71 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
 
     @Override
     public void onUndo(Parcelable token) {
-        //Restore items in lists (use reverseSortedOrder)
         if (token != null) {
 
             UndoCard item = (UndoCard) token;
-            int[] itemPositions = item.itemPosition;
             String[] itemIds = item.itemId;
 
-            if (itemPositions != null) {
-                int end = itemPositions.length;
-
-                for (int i = end - 1; i >= 0; i--) {
-                    int itemPosition = itemPositions[i];
-                    String id= itemIds[i];
-
+            if (itemIds != null) {
+                ArrayList<DismissedCard> restoredCards = new ArrayList<DismissedCard>(itemIds.length);
+                for (String id : itemIds) {
                     if (id==null){
                         Log.w(TAG, "You have to set a id value to use the undo action");
                     }else{
-                        Card card = mInternalObjects.get(id);
-                        if (card!=null){
-                            insert(card, itemPosition);
-                            notifyDataSetChanged();
-                            if (card.getOnUndoSwipeListListener()!=null)
-                                card.getOnUndoSwipeListListener().onUndoSwipe(card);
-                        }
+                        DismissedCard dismissed = mDismissedCards.remove(id);
+                        if (dismissed!=null)
+                            restoredCards.add(dismissed);
                     }
                 }
+
+                restoreDismissedCards(restoredCards);
+
+                for (DismissedCard dismissed : restoredCards) {
+                    Card card = dismissed.card;
+                    if (card.getOnUndoSwipeListListener()!=null)
+                        card.getOnUndoSwipeListListener().onUndoSwipe(card);
+                }
             }
         }
     }
 
+    /**
+     * Keeps the cards which are going to be dismissed, with their positions.
+     * Each card is anchored to the id of the first card above it which isn't dismissed.
+     * It has to be called before removing the cards.
+     *
+     * @param cards cards to dismiss
+     */
+    protected void keepDismissedCards(List<Card> cards) {
+        for (DismissedCard dismissed : DismissedCard.create(mItems, cards)) {
+            mDismissedCards.put(dismissed.card.getId(), dismissed);
+        }
+    }
+
+    /**
+     * Reinserts the dismissed cards with a single notification.
+     * </p>
+     * Each card is inserted below its anchor card, if it is still in the adapter,
+     * otherwise at its position without the other dismissed cards.
+     * Cards with the same anchor keep their original order.
+     *
+     * @param dismissedCards cards to restore
+     */
+    protected void restoreDismissedCards(List<DismissedCard> dismissedCards) {
+        if (dismissedCards.isEmpty())
+            return;
+
+        ArrayList<DismissedCard> sorted = new ArrayList<DismissedCard>(dismissedCards);
+        int[] indexes = DismissedCard.sortForInsert(mItems, sorted);
+
+        //Ascending indexes: each insert leaves the previous ones in place
+        beginBatch();
+        for (int i = 0; i < indexes.length; i++) {
+            insert(sorted.get(i).card, indexes[i]);
+        }
+        commit();
+    }
+
     /**
      * Indicates if the undo message is enabled after a swipe action
      *
@@ -411,12 +509,6 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
     public void setEnableUndo(boolean enableUndo) {
         mEnableUndo = enableUndo;
         if (enableUndo) {
-            mInternalObjects = new HashMap<String, Card>();
-            for (int i=0;i<getCount();i++) {
-                Card card = getItem(i);
-                mInternalObjects.put(card.getId(), card);
-            }
-
             //Create a UndoController
             if (mUndoBarController==null){
 
@@ -434,59 +526,151 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
                 }
             }
         }else{
+            if (mUndoBarController!=null)
+                mUndoBarController.hideUndoBar(true);
             mUndoBarController=null;
+            mDismissedCards.evictAll();
+        }
+    }
+
+    // -------------------------------------------------------------
+    //  Batch
+    // -------------------------------------------------------------
+
+    /**
+     * Starts a batch of mutations.
+     * </p>
+     * All add/addAll/insert/remove/clear/sort calls and the filter results until {@link #commit()}
+     * are coalesced in a single notification. Batches can be nested: only the outer commit notifies.
+     * <pre><code>
+     * adapter.beginBatch();
+     * adapter.remove(card1);
+     * adapter.insert(card2, 0);
+     * adapter.commit();
+     * </code></pre>
+     */
+    public void beginBatch() {
+        if (mBatchDepth++ == 0) {
+            mBatchChanged = false;
+            mBatchInvalidated = false;
+            super.setNotifyOnChange(false);
+        }
+    }
+
+    /**
+     * Ends a batch started with {@link #beginBatch()}.
+     * It notifies the changes once, when the outer batch is committed,
+     * and it restores the value set with {@link #setNotifyOnChange(boolean)}.
+     */
+    public void commit() {
+        if (mBatchDepth == 0) {
+            Log.w(TAG, "commit() called without beginBatch()");
+            return;
+        }
+        if (--mBatchDepth > 0)
+            return;
+
+        if (mBatchInvalidated) {
+            mBatchInvalidated = false;
+            mBatchChanged = false;
+            super.notifyDataSetInvalidated();
+        } else if (mBatchChanged) {
+            mBatchChanged = false;
+            super.notifyDataSetChanged();
+        }
+        //ArrayAdapter#notifyDataSetChanged() sets notifyOnChange to true
+        super.setNotifyOnChange(mNotifyOnChange);
+    }
+
+    /**
+     * Indicates if a batch is open
+     *
+     * @return <code>true</code> if a batch is open
+     */
+    public boolean isInBatch() {
+        return mBatchDepth > 0;
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        if (mBatchDepth > 0) {
+            mBatchChanged = true;
+            return;
+        }
+        super.notifyDataSetChanged();
+        mNotifyOnChange = true;
+    }
+
+    @Override
+    public void notifyDataSetInvalidated() {
+        //The filter notifies an invalidation when it has no results
+        if (mBatchDepth > 0) {
+            mBatchInvalidated = true;
+            return;
         }
+        super.notifyDataSetInvalidated();
     }
 
-    // ---------------------------------------------------------------------
-    //  Override Array Manipulation Methods To Keep mInternalObjects in Sync
-    // ---------------------------------------------------------------------
+    @Override
+    public void setNotifyOnChange(boolean notifyOnChange) {
+        mNotifyOnChange = notifyOnChange;
+        //Inside a batch it is applied by the commit
+        if (mBatchDepth == 0)
+            super.setNotifyOnChange(notifyOnChange);
+    }
 
-    // public void remove() intentionally omitted, since mInternalObjects needs
-    // to keep a reference so the remove can be undone, if necessary.
+    // -------------------------------------------------------------
+    //  Override Array Manipulation Methods To Track The Batch
+    // -------------------------------------------------------------
 
     @Override
     public void add(Card card) {
         super.add(card);
-        if (mEnableUndo) {
-            mInternalObjects.put(card.getId(), card);
-        }
+        onBatchChanged();
     }
 
     @Override
     public void addAll(Collection<? extends Card> cardCollection) {
         super.addAll(cardCollection);
-        if (mEnableUndo) {
-            for (Card card : cardCollection) {
-                mInternalObjects.put(card.getId(), card);
-            }
-        }
+        onBatchChanged();
     }
 
     @Override
     public void addAll(Card...cards) {
         super.addAll(cards);
-        if (mEnableUndo) {
-            for (Card card : cards) {
-                mInternalObjects.put(card.getId(), card);
-            }
-        }
+        onBatchChanged();
     }
 
     @Override
     public void clear() {
         super.clear();
-        if (mEnableUndo) {
-            mInternalObjects.clear();
-        }
+        onBatchChanged();
     }
 
     @Override
     public void insert(Card card, int index) {
         super.insert(card, index);
-        if (mEnableUndo) {
-            mInternalObjects.put(card.getId(), card);
-        }
+        onBatchChanged();
+    }
+
+    @Override
+    public void remove(Card card) {
+        super.remove(card);
+        onBatchChanged();
+    }
+
+    @Override
+    public void sort(Comparator<? super Card> comparator) {
+        super.sort(comparator);
+        onBatchChanged();
+    }
+
+    /**
+     * Marks the open batch as changed
+     */
+    private void onBatchChanged() {
+        if (mBatchDepth > 0)
+            mBatchChanged = true;
     }
 
     // -------------------------------------------------------------
@@ -500,6 +684,12 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
         return mCardListView;
     }
 
+    @Override
+    public void setCardViewPool(CardViewPool cardViewPool) {
+        super.setCardViewPool(cardViewPool);
+        prewarmCardViewPool(mCardListView);
+    }
+
     /**
      * Sets the {@link CardListView}
      *
@@ -507,6 +697,7 @@ public class CardArrayAdapter extends BaseCardArrayAdapter implements UndoBarCon
      */
     public void setCardListView(CardListView cardListView) {
         this.mCardListView = cardListView;
+        prewarmCardViewPool(mCardListView);
     }
 
 
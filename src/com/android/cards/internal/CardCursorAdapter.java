@@ -20,6 +20,7 @@ package com.android.cards.internal;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -27,7 +28,9 @@ import android.view.ViewGroup;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import com.android.cards.R;
 import com.android.cards.internal.base.BaseCardCursorAdapter;
@@ -63,6 +66,18 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
      */
     protected final List<String> mExpandedIds;
 
+    /**
+     * Index of {@link #mExpandedIds}, used for the lookups while binding.
+     * It is built again if the list is changed without the methods of this adapter.
+     */
+    private final Set<String> mExpandedIdIndex = new HashSet<String>();
+    private int mExpandedIdIndexModCount;
+
+    /**
+     * Key used to save the expanded ids
+     */
+    private static final String STATE_EXPANDED_IDS = "card_cursor_expanded_ids";
+
     /**
      * Recycle
      */
@@ -73,17 +88,17 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
 
     public CardCursorAdapter(Context context) {
         super(context, null, 0);
-        mExpandedIds = new ArrayList<String>();
+        mExpandedIds = new ExpandedIdList();
     }
 
     protected CardCursorAdapter(Context context, Cursor c, boolean autoRequery) {
         super(context, c, autoRequery);
-        mExpandedIds = new ArrayList<String>();
+        mExpandedIds = new ExpandedIdList();
     }
 
     protected CardCursorAdapter(Context context, Cursor c, int flags) {
         super(context, c, flags);
-        mExpandedIds = new ArrayList<String>();
+        mExpandedIds = new ExpandedIdList();
     }
 
     // -------------------------------------------------------------
@@ -115,12 +130,18 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
         CardViewWrapper mCardView;
         Card mCard;
 
-        mCard = (Card) getCardFromCursor(cursor);
+        mCardView = (CardViewWrapper) view.findViewById(R.id.list_cardId);
+
+        //The displayed card can be rebound in place: check its inner layouts before
+        Card displayedCard = mCardView != null ? mCardView.getCard() : null;
+        int[] displayedLayouts = Card.getInnerLayouts(displayedCard);
+
+        //Retrieve the card from the cache, or rebind the card of the recycled view
+        mCard = obtainCard(cursor, recycle ? displayedCard : null);
         if (mCard != null) {
-            mCardView = (CardViewWrapper) view.findViewById(R.id.list_cardId);
             if (mCardView != null) {
                 //It is important to set recycle value for inner layout elements
-                mCardView.setForceReplaceInnerLayout(Card.equalsInnerLayout(mCardView.getCard(),mCard));
+                mCardView.setForceReplaceInnerLayout(Card.equalsInnerLayout(displayedLayouts,mCard));
 
                 //It is important to set recycle value for performance issue
                 mCardView.setRecycle(recycle);
@@ -133,8 +154,8 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
 
                 mCardView.setCard(mCard);
 
-                //Set originalValue
-                //mCard.setSwipeable(origianlSwipeable);
+                //Set originalValue: the card can be cached and bound again
+                mCard.setSwipeable(origianlSwipeable);
                 if (origianlSwipeable)
                     Log.d(TAG, "Swipe action not enabled in this type of view");
 
@@ -147,7 +168,7 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
                 setupSwipeableAnimation(mCard, mCardView);
 
                 //setupMultiChoice
-                setupMultichoice(view,mCard,mCardView,cursor.getPosition());
+                setupMultichoice(view,mCard,mCardView,getAdapterPosition(cursor));
             }
         }
     }
@@ -193,10 +214,10 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
      */
     public void setExpanded(final String id) {
         if (mExpandedIds!=null){
-            if (mExpandedIds.contains(id)) {
-                return;
+            if (getExpandedIdIndex().add(id)) {
+                mExpandedIds.add(id);
+                onExpandedIdsIndexed();
             }
-            mExpandedIds.add(id);
         }
     }
 
@@ -214,10 +235,10 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
      */
     public void setCollapsed(final String id) {
         if (mExpandedIds!=null){
-            if (!mExpandedIds.contains(id)) {
-                return;
+            if (getExpandedIdIndex().remove(id)) {
+                mExpandedIds.remove(id);
+                onExpandedIdsIndexed();
             }
-            mExpandedIds.remove(id);
         }
     }
 
@@ -230,7 +251,7 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
      */
     public boolean isExpanded(Card card) {
         String itemId = card.getId();
-        return mExpandedIds.contains(itemId);
+        return getExpandedIdIndex().contains(itemId);
     }
 
     /**
@@ -243,7 +264,7 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
         Card card = viewCard.getCard();
         if (card!=null){
             String itemId = card.getId();
-            if (!mExpandedIds.contains(itemId)) {
+            if (!getExpandedIdIndex().contains(itemId)) {
                 return true;
             }
         }
@@ -260,7 +281,7 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
         Card card = viewCard.getCard();
         if (card!=null){
             String itemId = card.getId();
-            if (mExpandedIds.contains(itemId)) {
+            if (getExpandedIdIndex().contains(itemId)) {
                 return true;
             }
         }
@@ -291,6 +312,39 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
         }
     }
 
+    // -------------------------------------------------------------
+    //  Expanded ids index
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the index of the expanded ids, building it again if the list was changed outside this adapter
+     */
+    private Set<String> getExpandedIdIndex() {
+        if (mExpandedIdIndexModCount != ((ExpandedIdList) mExpandedIds).getModCount()) {
+            mExpandedIdIndex.clear();
+            mExpandedIdIndex.addAll(mExpandedIds);
+            onExpandedIdsIndexed();
+        }
+        return mExpandedIdIndex;
+    }
+
+    /**
+     * Marks the index as updated with the list
+     */
+    private void onExpandedIdsIndexed() {
+        mExpandedIdIndexModCount = ((ExpandedIdList) mExpandedIds).getModCount();
+    }
+
+    /**
+     * List of the expanded ids which exposes its modification count
+     */
+    private static class ExpandedIdList extends ArrayList<String> {
+
+        int getModCount() {
+            return modCount;
+        }
+    }
+
     // -------------------------------------------------------------
     //  Getters and Setters
     // -------------------------------------------------------------
@@ -320,4 +374,34 @@ public abstract class CardCursorAdapter extends BaseCardCursorAdapter  {
     public List<String> getExpandedIds() {
         return mExpandedIds;
     }
+
+    // -------------------------------------------------------------
+    //  Save and restore state
+    // -------------------------------------------------------------
+
+    /**
+     * Saves the expanded ids.
+     * Call it from the onSaveInstanceState method of your Activity or Fragment.
+     *
+     * @param outState bundle
+     */
+    public void onSaveInstanceState(Bundle outState) {
+        outState.putStringArrayList(STATE_EXPANDED_IDS, new ArrayList<String>(mExpandedIds));
+    }
+
+    /**
+     * Restores the expanded ids saved by {@link #onSaveInstanceState(Bundle)}
+     *
+     * @param savedInstanceState bundle
+     */
+    public void onRestoreInstanceState(Bundle savedInstanceState) {
+        if (savedInstanceState != null) {
+            ArrayList<String> expandedIds = savedInstanceState.getStringArrayList(STATE_EXPANDED_IDS);
+            if (expandedIds != null) {
+                mExpandedIds.clear();
+                mExpandedIds.addAll(expandedIds);
+                notifyDataSetChanged();
+            }
+        }
+    }
 }
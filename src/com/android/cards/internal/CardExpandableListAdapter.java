@@ -60,12 +60,18 @@ public class CardExpandableListAdapter<T> extends BaseExpandableListAdapter {
      */
     protected CardExpandableListView mCardListView;
 
+    /**
+     * Changes when the data is notified. It is used to skip the binding of unchanged groups.
+     */
+    private Object mBoundGeneration = new Object();
+
     // -------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------
 
     public CardExpandableListAdapter(Context context, SparseArray<BaseGroupExpandableCard<T>> cards) {
         this.cards = cards;
+        mContext = context;
         mInflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
     }
 
@@ -131,55 +137,198 @@ public class CardExpandableListAdapter<T> extends BaseExpandableListAdapter {
             //Setup card
             mCardView = (CardViewWrapper) view.findViewById(R.id.list_cardId);
             if (mCardView != null) {
+
+                //The list rebinds all the groups when a group is expanded or collapsed.
+                //Skip the binding if the view already displays this card and the data is not changed.
+                if (recycle && mCardView.getCard() == mCard
+                        && view.getTag(R.id.list_cardId) == mBoundGeneration) {
+                    return view;
+                }
+
                 //It is important to set recycle value for inner layout elements
                 mCardView.setForceReplaceInnerLayout(Card.equalsInnerLayout(mCardView.getCard(), mCard));
 
                 //It is important to set recycle value for performance issue
                 mCardView.setRecycle(recycle);
 
-                mCard.setSwipeable(false);
+                if (mCard.isSwipeable())
+                    mCard.setSwipeable(false);
 
                 mCardView.setCard(mCard);
 
+                view.setTag(R.id.list_cardId, mBoundGeneration);
             }
         }
 
         return view;
     }
 
+    @Override
+    public void notifyDataSetChanged() {
+        mBoundGeneration = new Object();
+        super.notifyDataSetChanged();
+    }
+
+    @Override
+    public void notifyDataSetInvalidated() {
+        mBoundGeneration = new Object();
+        super.notifyDataSetInvalidated();
+    }
+
+    // -------------------------------------------------------------
+    //  Children
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the number of child view types.
+     * Override this method together with {@link #getChildType(int, int)} and {@link #newChildView(ViewGroup, int)}
+     * to use different layouts for children.
+     *
+     * @return the number of child view types
+     */
+    @Override
+    public int getChildTypeCount() {
+        return 1;
+    }
+
+    /**
+     * Returns the view type of the child.
+     *
+     * @param groupPosition group position
+     * @param childPosition child position
+     * @return a value between 0 and {@link #getChildTypeCount()}-1
+     */
+    @Override
+    public int getChildType(int groupPosition, int childPosition) {
+        return 0;
+    }
+
     @Override
     public View getChildView(int groupPosition, int childPosition, boolean isLastChild, View convertView, ViewGroup parent) {
 
         T obj = getChild(groupPosition, childPosition);
 
-        if (obj != null && obj instanceof String) {
-            final String children = (String) obj;
+        View view = convertView;
+        ChildViewHolder holder;
+        if (view == null) {
+            view = newChildView(parent, getChildType(groupPosition, childPosition));
+            holder = newChildViewHolder(view);
+            view.setTag(holder);
+        } else {
+            holder = (ChildViewHolder) view.getTag();
+        }
 
-            TextView text = null;
-            if (convertView == null) {
-                convertView = mInflater.inflate(mChildLayoutId, null);
-            }
-            text = (TextView) convertView.findViewById(R.id.card_children_simple_title);
-            text.setText(children);
+        holder.groupPosition = groupPosition;
+        holder.childPosition = childPosition;
 
-            registerClickListener(convertView, obj, groupPosition, childPosition);
-        }
-        return convertView;
+        bindChildView(holder, obj, groupPosition, childPosition);
+        registerClickListener(view, obj, groupPosition, childPosition);
+
+        return view;
+    }
+
+    /**
+     * Inflates the view used by children.
+     * Override this method to use a different layout for each child type.
+     *
+     * @param parent    parent view
+     * @param childType child view type
+     * @return the child view
+     */
+    protected View newChildView(ViewGroup parent, int childType) {
+        return mInflater.inflate(mChildLayoutId, parent, false);
     }
 
+    /**
+     * Creates the {@link ChildViewHolder} of a new child view.
+     * Override this method to cache other ui elements.
+     *
+     * @param view child view
+     * @return the holder
+     */
+    protected ChildViewHolder newChildViewHolder(View view) {
+        return new ChildViewHolder(view);
+    }
 
+    /**
+     * Sets the ui elements of the child.
+     * The default implementation displays the {@link String} representation of the child.
+     * Override this method to set your ui elements.
+     *
+     * @param holder        child holder
+     * @param child         child object
+     * @param groupPosition group position
+     * @param childPosition child position
+     */
+    protected void bindChildView(ChildViewHolder holder, T child, int groupPosition, int childPosition) {
+        if (holder.mTitle != null)
+            holder.mTitle.setText(child != null ? child.toString() : null);
+    }
+
+    /**
+     * Sets the shared click listener on the child view.
+     *
+     * @param convertView   child view
+     * @param obj           child object
+     * @param groupPosition group position
+     * @param childPosition child position
+     */
     protected void registerClickListener(View convertView, T obj, int groupPosition, int childPosition) {
         if (isChildSelectable(groupPosition, childPosition)) {
-            final T children = obj;
-            convertView.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    Toast.makeText(mContext, children.toString(), Toast.LENGTH_SHORT).show();
-                }
-            });
+            convertView.setOnClickListener(mChildClickDispatcher);
+        } else {
+            convertView.setOnClickListener(null);
+            convertView.setClickable(false);
         }
     }
 
+    /**
+     * Called when a child is clicked.
+     * Override this method to handle the click.
+     *
+     * @param view          child view
+     * @param child         child object
+     * @param groupPosition group position
+     * @param childPosition child position
+     */
+    protected void onChildClick(View view, T child, int groupPosition, int childPosition) {
+        if (child != null)
+            Toast.makeText(mContext, child.toString(), Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Single listener shared by all the children. The positions are read from the {@link ChildViewHolder}.
+     */
+    private final View.OnClickListener mChildClickDispatcher = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            Object tag = v.getTag();
+            if (tag instanceof ChildViewHolder) {
+                ChildViewHolder holder = (ChildViewHolder) tag;
+                if (holder.groupPosition < getGroupCount()
+                        && holder.childPosition < getChildrenCount(holder.groupPosition)) {
+                    onChildClick(v, getChild(holder.groupPosition, holder.childPosition),
+                            holder.groupPosition, holder.childPosition);
+                }
+            }
+        }
+    };
+
+    /**
+     * Holder of the ui elements of a child view.
+     */
+    public static class ChildViewHolder {
+
+        public final View mView;
+        public final TextView mTitle;
+        public int groupPosition;
+        public int childPosition;
+
+        public ChildViewHolder(View view) {
+            mView = view;
+            mTitle = (TextView) view.findViewById(R.id.card_children_simple_title);
+        }
+    }
 
     @Override
     public boolean isChildSelectable(int groupPosition, int childPosition) {
@@ -29,6 +29,7 @@ import java.util.List;
 import com.android.cards.R;
 import com.android.cards.internal.base.BaseCardArrayAdapter;
 import com.android.cards.view.CardGridView;
+import com.android.cards.view.base.CardViewPool;
 import com.android.cards.view.base.CardViewWrapper;
 import com.android.cards.view.listener.SwipeDismissListViewTouchListener;
 
@@ -124,7 +125,7 @@ public class CardGridArrayAdapter extends BaseCardArrayAdapter {
             //Inflate layout
             if (view == null) {
                 recycle = false;
-                view = mInflater.inflate(layout, parent, false);
+                view = inflateRowView(mInflater, layout, parent);
             } else {
                 recycle = true;
             }
@@ -159,6 +160,9 @@ public class CardGridArrayAdapter extends BaseCardArrayAdapter {
 
                 //setupMultiChoice
                 setupMultichoice(view,mCard,mCardView,position);
+
+                //Precompute the texts of the next cards
+                prepareTextLayouts(view, position);
             }
         }
 
@@ -199,6 +203,12 @@ public class CardGridArrayAdapter extends BaseCardArrayAdapter {
         return mCardGridView;
     }
 
+    @Override
+    public void setCardViewPool(CardViewPool cardViewPool) {
+        super.setCardViewPool(cardViewPool);
+        prewarmCardViewPool(mCardGridView);
+    }
+
     /**
      * Sets the {@link CardGridView}
      *
@@ -206,5 +216,6 @@ public class CardGridArrayAdapter extends BaseCardArrayAdapter {
      */
     public void setCardGridView(CardGridView cardGridView) {
         this.mCardGridView = cardGridView;
+        prewarmCardViewPool(mCardGridView);
     }
 }
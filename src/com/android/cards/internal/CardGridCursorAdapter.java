@@ -104,12 +104,18 @@ public abstract class CardGridCursorAdapter extends BaseCardCursorAdapter  {
         CardViewWrapper mCardView;
         Card mCard;
 
-        mCard = (Card) getCardFromCursor(cursor);
+        mCardView = (CardViewWrapper) view.findViewById(R.id.list_cardId);
+
+        //The displayed card can be rebound in place: check its inner layouts before
+        Card displayedCard = mCardView != null ? mCardView.getCard() : null;
+        int[] displayedLayouts = Card.getInnerLayouts(displayedCard);
+
+        //Retrieve the card from the cache, or rebind the card of the recycled view
+        mCard = obtainCard(cursor, recycle ? displayedCard : null);
         if (mCard != null) {
-            mCardView = (CardViewWrapper) view.findViewById(R.id.list_cardId);
             if (mCardView != null) {
                 //It is important to set recycle value for inner layout elements
-                mCardView.setForceReplaceInnerLayout(Card.equalsInnerLayout(mCardView.getCard(),mCard));
+                mCardView.setForceReplaceInnerLayout(Card.equalsInnerLayout(displayedLayouts,mCard));
 
                 //It is important to set recycle value for performance issue
                 mCardView.setRecycle(recycle);
@@ -120,8 +126,8 @@ public abstract class CardGridCursorAdapter extends BaseCardCursorAdapter  {
 
                 mCardView.setCard(mCard);
 
-                //Set originalValue
-                //mCard.setSwipeable(origianlSwipeable);
+                //Set originalValue: the card can be cached and bound again
+                mCard.setSwipeable(origianlSwipeable);
                 if (origianlSwipeable)
                     Log.d(TAG, "Swipe action not enabled in this type of view");
 
@@ -0,0 +1,221 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.internal;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+
+import com.android.cards.internal.paging.PagedCursorAdapter;
+import com.android.cards.internal.paging.PagedCursorHelper;
+
+/**
+ * Cursor Adapter for {@link Card} model which loads the rows in windows.
+ * </p>
+ * Only a window of rows is kept in the cursor and materialized as cards.
+ * The window is queried on a background thread and it slides while the {@link com.android.cards.view.CardGridView} scrolls.
+ * Rows outside the window display a placeholder until their window is loaded.
+ * </p>
+ * Usage:
+ * <pre><code>
+ * public class MyAdapter extends CardGridPagedCursorAdapter {
+ *
+ *     protected int queryCount() {
+ *         Cursor c = getContext().getContentResolver().query(URI, new String[]{"count(*)"}, null, null, null);
+ *         ...
+ *     }
+ *
+ *     protected Cursor queryWindow(int offset, int limit) {
+ *         return getContext().getContentResolver().query(URI, PROJECTION, null, null,
+ *                 "_id LIMIT " + limit + " OFFSET " + offset);
+ *     }
+ *
+ *     protected Card getCardFromCursor(Cursor cursor) {
+ *         ...
+ *     }
+ * }
+ *
+ * adapter.load();
+ * </code></pre>
+ * </p>
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public abstract class CardGridPagedCursorAdapter extends CardGridCursorAdapter implements PagedCursorAdapter {
+
+    /**
+     * Helper
+     */
+    protected PagedCursorHelper mPagedHelper = new PagedCursorHelper(this);
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    /**
+     * Constructor
+     *
+     * @param context The current context.
+     */
+    public CardGridPagedCursorAdapter(Context context) {
+        super(context);
+    }
+
+    // -------------------------------------------------------------
+    // Loading
+    // -------------------------------------------------------------
+
+    /**
+     * Queries the count and the first window on a background thread
+     */
+    public void load() {
+        mPagedHelper.load();
+    }
+
+    /**
+     * Queries the count and the current window again.
+     * Call it when the data changes.
+     */
+    public void reload() {
+        mPagedHelper.reload();
+    }
+
+    /**
+     * Cancels the loading and closes the cursor
+     */
+    public void close() {
+        mPagedHelper.close();
+    }
+
+    // -------------------------------------------------------------
+    // Views
+    // -------------------------------------------------------------
+
+    @Override
+    public int getCount() {
+        return mPagedHelper.getCount();
+    }
+
+    @Override
+    public Card getItem(int position) {
+        if (!mPagedHelper.isInWindow(position))
+            return null;
+        return super.getItem(mPagedHelper.toCursorPosition(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        if (!mPagedHelper.isInWindow(position))
+            return AdapterView.INVALID_ROW_ID;
+        return super.getItemId(mPagedHelper.toCursorPosition(position));
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return mPagedHelper.getViewTypeCount(super.getViewTypeCount());
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        if (!mPagedHelper.isInWindow(position))
+            return getPlaceholderViewType();
+        return super.getItemViewType(position);
+    }
+
+    /**
+     * Returns the view type of the placeholders, after the card types
+     *
+     * @return
+     */
+    protected int getPlaceholderViewType() {
+        return mPagedHelper.getPlaceholderViewType(super.getViewTypeCount());
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+        if (!mPagedHelper.isInWindow(position))
+            return false;
+        return super.isEnabled(position);
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        //Slide the window if it is necessary
+        mPagedHelper.onPositionRequested(position);
+
+        if (!mPagedHelper.isInWindow(position))
+            return getPlaceholderView(position, convertView, parent);
+        return super.getView(mPagedHelper.toCursorPosition(position), convertView, parent);
+    }
+
+    /**
+     * Returns the view displayed while the row is loading.
+     * Override it to provide a custom view.
+     *
+     * @param position    adapter position
+     * @param convertView old view
+     * @param parent      parent
+     * @return the placeholder view
+     */
+    protected View getPlaceholderView(int position, View convertView, ViewGroup parent) {
+        return mPagedHelper.getPlaceholderView(mContext, convertView, parent);
+    }
+
+    @Override
+    protected int getAdapterPosition(Cursor cursor) {
+        return mPagedHelper.toAdapterPosition(cursor.getPosition());
+    }
+
+    @Override
+    protected long getCardCacheKey(Cursor cursor) {
+        return mPagedHelper.getCardCacheKey(cursor, mRowIDColumn);
+    }
+
+    // -------------------------------------------------------------
+    //  Getters and Setters
+    // -------------------------------------------------------------
+
+    /**
+     * Sets the number of rows in a page
+     *
+     * @param pageSize
+     */
+    public void setPageSize(int pageSize) {
+        mPagedHelper.setPageSize(pageSize);
+    }
+
+    /**
+     * Sets the number of pages kept in the window
+     *
+     * @param windowPages
+     */
+    public void setWindowPages(int windowPages) {
+        mPagedHelper.setWindowPages(windowPages);
+    }
+
+    /**
+     * Sets the layout displayed while a row is loading
+     *
+     * @param placeholderLayoutId layout resource id
+     */
+    public void setPlaceholderLayoutId(int placeholderLayoutId) {
+        mPagedHelper.setPlaceholderLayoutId(placeholderLayoutId);
+    }
+}
@@ -123,6 +123,11 @@ public class CardHeader extends BaseCard {
      */
     protected OnPrepareCardHeaderPopupMenuListener mPopupMenuPrepareListener;
 
+    /**
+     * Predicate used to decide if the overflow button is visible, without building the PopupMenu
+     */
+    protected OnCheckCardHeaderPopupMenuVisibilityListener mPopupMenuVisibilityListener;
+
     /**
      * Listener invoked when Other Button is clicked
      */
@@ -227,6 +232,25 @@ public class CardHeader extends BaseCard {
         public boolean onPreparePopupMenu(BaseCard card, PopupMenu popupMenu);
     }
 
+    /**
+     * Interface to decide cheaply if the popup menu has something to show
+     */
+    public interface OnCheckCardHeaderPopupMenuVisibilityListener {
+
+        /**
+         * This is called when the header is bound, instead of building the menu.
+         * Keep it cheap: it runs for every card in a list.
+         * </p>
+         * When it is set, the {@link OnPrepareCardHeaderPopupMenuListener} is invoked only
+         * when the user taps the overflow button.
+         *
+         * @param card
+         *
+         * @return <code>true</code> if the overflow button has to be displayed
+         */
+        public boolean isPopupMenuVisible(BaseCard card);
+    }
+
     /**
      * Interface to handle callbacks when Other Button is clicked
      */
@@ -424,6 +448,27 @@ public class CardHeader extends BaseCard {
         mPopupMenuPrepareListener = popupMenuListener;
     }
 
+    /**
+     * Returns the predicate used to decide if the overflow button is visible
+     *
+     * @return  visibility listener
+     */
+    public OnCheckCardHeaderPopupMenuVisibilityListener getPopupMenuVisibilityListener() {
+        return mPopupMenuVisibilityListener;
+    }
+
+    /**
+     * Sets the predicate used to decide if the overflow button is visible.
+     * </p>
+     * Without it, a header with a {@link OnPrepareCardHeaderPopupMenuListener} has to build
+     * and prepare its PopupMenu while it is bound, to know if the menu has visible items.
+     *
+     * @param visibilityListener  visibility listener
+     */
+    public void setPopupMenuVisibilityListener(OnCheckCardHeaderPopupMenuVisibilityListener visibilityListener) {
+        mPopupMenuVisibilityListener = visibilityListener;
+    }
+
     /**
      * Indicates if expand/collapse button is visible
      *
@@ -0,0 +1,173 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Dismissed card and its position in the adapter when it was dismissed.
+ * </p>
+ * Each card is anchored to the id of the first card above it which isn't dismissed,
+ * so the undo puts it back below that card even if other cards were removed or restored meanwhile.
+ * It is used by the adapters which support the undo action.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class DismissedCard {
+
+    public final Card card;
+    public final int position;
+
+    /**
+     * Id of the first card above it which wasn't dismissed, <code>null</code> if there isn't one
+     */
+    public final String anchorId;
+
+    /**
+     * Position without the cards dismissed together with it
+     */
+    public final int anchorPosition;
+
+    public DismissedCard(Card card, int position, String anchorId, int anchorPosition) {
+        this.card = card;
+        this.position = position;
+        this.anchorId = anchorId;
+        this.anchorPosition = anchorPosition;
+    }
+
+    // -------------------------------------------------------------
+    //  Keep
+    // -------------------------------------------------------------
+
+    /**
+     * Creates the dismissed cards, anchoring each card to the first card above it which isn't dismissed.
+     * It has to be called before removing the cards. Cards without id are skipped.
+     *
+     * @param items cards in the adapter
+     * @param cards cards to dismiss
+     * @return the dismissed cards
+     */
+    public static List<DismissedCard> create(List<Card> items, List<Card> cards) {
+        int[] positions = new int[cards.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = items.indexOf(cards.get(i));
+        }
+        int[] sortedPositions = positions.clone();
+        Arrays.sort(sortedPositions);
+
+        ArrayList<DismissedCard> dismissedCards = new ArrayList<DismissedCard>(positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            Card card = cards.get(i);
+            int position = positions[i];
+            if (card.getId() == null || position < 0)
+                continue;
+
+            int anchor = position - 1;
+            while (anchor >= 0 && Arrays.binarySearch(sortedPositions, anchor) >= 0)
+                anchor--;
+            String anchorId = anchor >= 0 ? items.get(anchor).getId() : null;
+
+            //Position without the other dismissed cards
+            int anchorPosition = position - Arrays.binarySearch(sortedPositions, position);
+
+            dismissedCards.add(new DismissedCard(card, position, anchorId, anchorPosition));
+        }
+        return dismissedCards;
+    }
+
+    // -------------------------------------------------------------
+    //  Restore
+    // -------------------------------------------------------------
+
+    /**
+     * Finds where the dismissed cards have to be inserted.
+     * </p>
+     * Each card goes below its anchor card, if it is still in the adapter,
+     * otherwise at its position without the other dismissed cards.
+     * Cards with the same anchor keep their original order.
+     * </p>
+     * The list of dismissed cards is sorted in insertion order, and the returned indexes are ascending:
+     * inserting each card at its index, one after the other, gives the final list.
+     *
+     * @param items          cards in the adapter
+     * @param dismissedCards cards to restore, sorted by this method
+     * @return the index of each card
+     */
+    public static int[] sortForInsert(List<Card> items, List<DismissedCard> dismissedCards) {
+        final int size = dismissedCards.size();
+        final int count = items.size();
+
+        //Find the anchors
+        HashMap<String, Integer> anchors = new HashMap<String, Integer>();
+        for (DismissedCard dismissed : dismissedCards) {
+            if (dismissed.anchorId != null)
+                anchors.put(dismissed.anchorId, -1);
+        }
+        if (!anchors.isEmpty()) {
+            for (int i = 0; i < count; i++) {
+                String id = items.get(i).getId();
+                if (id != null) {
+                    Integer anchor = anchors.get(id);
+                    if (anchor != null && anchor < 0)
+                        anchors.put(id, i);
+                }
+            }
+        }
+
+        //Index of the card after which each dismissed card is inserted, -1 for the top
+        final int[] after = new int[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            DismissedCard dismissed = dismissedCards.get(i);
+            Integer anchor = dismissed.anchorId != null ? anchors.get(dismissed.anchorId) : null;
+            if (anchor != null && anchor >= 0)
+                after[i] = anchor;
+            else
+                after[i] = Math.min(dismissed.anchorPosition, count) - 1;
+            order[i] = i;
+        }
+
+        final List<DismissedCard> cards = dismissedCards;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                if (after[lhs] != after[rhs])
+                    return after[lhs] < after[rhs] ? -1 : 1;
+                int lhsPosition = cards.get(lhs).position;
+                int rhsPosition = cards.get(rhs).position;
+                return lhsPosition < rhsPosition ? -1 : (lhsPosition == rhsPosition ? 0 : 1);
+            }
+        });
+
+        //Each card is shifted by the cards inserted before it
+        int[] indexes = new int[size];
+        ArrayList<DismissedCard> sorted = new ArrayList<DismissedCard>(size);
+        for (int i = 0; i < size; i++) {
+            indexes[i] = after[order[i]] + 1 + i;
+            sorted.add(dismissedCards.get(order[i]));
+        }
+        dismissedCards.clear();
+        dismissedCards.addAll(sorted);
+        return indexes;
+    }
+}
@@ -19,13 +19,17 @@
 package com.android.cards.internal.base;
 
 import android.content.Context;
+import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 
 import java.util.List;
 
 import com.android.cards.R;
 import com.android.cards.internal.Card;
+import com.android.cards.utils.TextLayoutPrecomputer;
+import com.android.cards.view.base.CardViewPool;
 import com.android.cards.view.base.CardViewWrapper;
 import com.android.cards.view.listener.UndoBarController;
 
@@ -56,6 +60,31 @@ public abstract class BaseCardArrayAdapter extends ArrayAdapter<Card> {
      */
     protected UndoBarController.UndoBarUIElements mUndoBarUIElements;
 
+    /**
+     * Pool with pre-inflated rows. It can be <code>null</code>.
+     */
+    protected CardViewPool mCardViewPool;
+
+    /**
+     * Precomputes the text layouts of the next cards. It can be <code>null</code>.
+     */
+    protected TextLayoutPrecomputer mTextLayoutPrecomputer;
+
+    /**
+     * Cards read by the {@link TextLayoutPrecomputer}
+     */
+    private final TextLayoutPrecomputer.CardSource mCardSource = new TextLayoutPrecomputer.CardSource() {
+        @Override
+        public int getCardCount() {
+            return getCount();
+        }
+
+        @Override
+        public Card getCard(int position) {
+            return getItem(position);
+        }
+    };
+
     // -------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------
@@ -96,6 +125,47 @@ public abstract class BaseCardArrayAdapter extends ArrayAdapter<Card> {
             return false;
     }
 
+    /**
+     * Returns a new row, taken from the {@link CardViewPool} if it is available.
+     * Otherwise the row is inflated.
+     *
+     * @param inflater inflater
+     * @param layout   layout of the row
+     * @param parent   parent view
+     * @return the row
+     */
+    protected View inflateRowView(LayoutInflater inflater, int layout, ViewGroup parent) {
+        if (mCardViewPool != null) {
+            View view = mCardViewPool.obtain(layout);
+            //Refill the pool when the main thread is idle
+            mCardViewPool.prewarm(parent, layout);
+            if (view != null)
+                return view;
+        }
+        return inflater.inflate(layout, parent, false);
+    }
+
+    /**
+     * Fills the {@link CardViewPool} with the rows used by this adapter
+     *
+     * @param parent the view which displays the rows
+     */
+    protected void prewarmCardViewPool(ViewGroup parent) {
+        if (mCardViewPool != null && parent != null)
+            mCardViewPool.prewarm(parent, mRowLayoutId);
+    }
+
+    /**
+     * Learns the title styles from the bound view and precomputes the titles of the next cards in the scroll direction
+     *
+     * @param view     bound view
+     * @param position bound position
+     */
+    protected void prepareTextLayouts(View view, int position) {
+        if (mTextLayoutPrecomputer != null)
+            mTextLayoutPrecomputer.onCardBound(view, position, mCardSource);
+    }
+
     /**
      * This method is used in with multichoice
      * @param mCard
@@ -138,6 +208,45 @@ public abstract class BaseCardArrayAdapter extends ArrayAdapter<Card> {
     }
 
 
+    /**
+     * Returns the pool with pre-inflated rows
+     *
+     * @return the pool, or <code>null</code>
+     */
+    public CardViewPool getCardViewPool() {
+        return mCardViewPool;
+    }
+
+    /**
+     * Sets the pool with pre-inflated rows.
+     * The adapter takes the rows from the pool before inflating a new row.
+     * The same pool can be shared by adapters which use the same layouts.
+     *
+     * @param cardViewPool the pool, or <code>null</code> to disable it
+     */
+    public void setCardViewPool(CardViewPool cardViewPool) {
+        mCardViewPool = cardViewPool;
+    }
+
+    /**
+     * Returns the text layout precomputer
+     *
+     * @return the precomputer, or <code>null</code>
+     */
+    public TextLayoutPrecomputer getTextLayoutPrecomputer() {
+        return mTextLayoutPrecomputer;
+    }
+
+    /**
+     * Sets the text layout precomputer.
+     * The titles of the cards around the bound position are laid out in a background thread.
+     *
+     * @param textLayoutPrecomputer the precomputer, or <code>null</code> to disable it
+     */
+    public void setTextLayoutPrecomputer(TextLayoutPrecomputer textLayoutPrecomputer) {
+        mTextLayoutPrecomputer = textLayoutPrecomputer;
+    }
+
     /**
      * Set the undobar ui elements
      *
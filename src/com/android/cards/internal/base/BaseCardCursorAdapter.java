@@ -20,9 +20,12 @@ package com.android.cards.internal.base;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.util.LruCache;
 import android.view.View;
 import android.widget.CursorAdapter;
 
+import java.util.ArrayDeque;
+
 import com.android.cards.R;
 import com.android.cards.internal.Card;
 import com.android.cards.view.base.CardViewWrapper;
@@ -49,6 +52,33 @@ public abstract class BaseCardCursorAdapter extends CursorAdapter {
      */
     protected int innerviewTypeCount=1;
 
+    /**
+     * Cache of the materialized cards.
+     * It uses the row id (or the position if the cursor hasn't an id column) as key.
+     * It is null when the cache is disabled.
+     */
+    protected LruCache<Long, Card> mCardCache;
+
+    /**
+     * Used to rebind an existing card instance instead of creating a new one
+     */
+    protected boolean mRebindCards = false;
+
+    /**
+     * Cards evicted from the cache, available to be rebound
+     */
+    private final ArrayDeque<Card> mRecycledCards = new ArrayDeque<Card>();
+
+    /**
+     * Max number of evicted cards kept to be rebound
+     */
+    private static final int MAX_RECYCLED_CARDS = 8;
+
+    /**
+     * Used to keep the cached cards while the cursor is changed
+     */
+    private boolean mKeepCardCache = false;
+
     // -------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------
@@ -108,7 +138,7 @@ public abstract class BaseCardCursorAdapter extends CursorAdapter {
     public Card getItem(int position) {
         Object obj = super.getItem(position);
         if (obj instanceof Cursor)
-            return (Card) getCardFromCursor((Cursor) obj);
+            return obtainCard((Cursor) obj, null);
         else
             return null;
     }
@@ -120,6 +150,134 @@ public abstract class BaseCardCursorAdapter extends CursorAdapter {
      */
     protected abstract Card getCardFromCursor(Cursor cursor);
 
+    /**
+     * Builds the card for the current cursor row, reusing a card which is no longer displayed.
+     * </p>
+     * The default implementation ignores the recycledCard and calls {@link #getCardFromCursor(Cursor)}.
+     * Override it with {@link #setRebindCards(boolean)} to populate the recycledCard with the row values.
+     * The rebound card has to keep the same inner layouts (use a card type for each layout).
+     *
+     * @param cursor       cursor moved to the row
+     * @param recycledCard a card which can be populated again, or <code>null</code>
+     * @return the card
+     */
+    protected Card getCardFromCursor(Cursor cursor, Card recycledCard) {
+        return getCardFromCursor(cursor);
+    }
+
+    /**
+     * Returns the card for the current cursor row.
+     * It uses the cache (if enabled), otherwise it builds (or rebinds) the card.
+     *
+     * @param cursor       cursor moved to the row
+     * @param displayedCard the card displayed by the view which is recycled, or <code>null</code>
+     * @return the card
+     */
+    protected Card obtainCard(Cursor cursor, Card displayedCard) {
+        if (mCardCache == null) {
+            if (mRebindCards && displayedCard != null)
+                return getCardFromCursor(cursor, displayedCard);
+            return getCardFromCursor(cursor);
+        }
+
+        long key = getCardCacheKey(cursor);
+        Card card = mCardCache.get(key);
+        if (card == null) {
+            card = getCardFromCursor(cursor, pollRecycledCard());
+            if (card != null)
+                mCardCache.put(key, card);
+        }
+        return card;
+    }
+
+    /**
+     * Returns the adapter position of the current cursor row
+     *
+     * @param cursor cursor moved to the row
+     * @return the adapter position
+     */
+    protected int getAdapterPosition(Cursor cursor) {
+        return cursor.getPosition();
+    }
+
+    /**
+     * Returns the key used by the cache for the current cursor row
+     *
+     * @param cursor cursor moved to the row
+     * @return the row id, or the position if the cursor doesn't have an id column
+     */
+    protected long getCardCacheKey(Cursor cursor) {
+        if (mRowIDColumn >= 0)
+            return cursor.getLong(mRowIDColumn);
+        return cursor.getPosition();
+    }
+
+    /**
+     * Returns an evicted card which is not displayed by a view
+     */
+    private Card pollRecycledCard() {
+        if (!mRebindCards)
+            return null;
+
+        Card card;
+        while ((card = mRecycledCards.poll()) != null) {
+            if (card.getCardView() == null || card.getCardView().getCard() != card)
+                return card;
+        }
+        return null;
+    }
+
+    // -------------------------------------------------------------
+    // Cache
+    // -------------------------------------------------------------
+
+    /**
+     * Clears all cached cards.
+     * It is called when the cursor is swapped or its data changes.
+     */
+    public void invalidateCardCache() {
+        if (mCardCache != null)
+            mCardCache.evictAll();
+    }
+
+    /**
+     * Changes the underlying cursor keeping the cached cards. The old cursor is closed.
+     * </p>
+     * Use it only when the rows of the new cursor have the same data and the same cache keys
+     * (see {@link #getCardCacheKey(Cursor)}), for example when another window of the same query is loaded.
+     *
+     * @param cursor The new cursor to be used
+     */
+    public void changeCursorKeepingCardCache(Cursor cursor) {
+        mKeepCardCache = true;
+        try {
+            changeCursor(cursor);
+        } finally {
+            mKeepCardCache = false;
+        }
+    }
+
+    @Override
+    public Cursor swapCursor(Cursor newCursor) {
+        if (!mKeepCardCache)
+            invalidateCardCache();
+        return super.swapCursor(newCursor);
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        if (!mKeepCardCache)
+            invalidateCardCache();
+        super.notifyDataSetChanged();
+    }
+
+    @Override
+    public void notifyDataSetInvalidated() {
+        invalidateCardCache();
+        mRecycledCards.clear();
+        super.notifyDataSetInvalidated();
+    }
+
     // -------------------------------------------------------------
     //  Getters and Setters
     // -------------------------------------------------------------
@@ -151,4 +309,47 @@ public abstract class BaseCardCursorAdapter extends CursorAdapter {
     public void setInnerViewTypeCount(int viewTypeCount) {
         this.innerviewTypeCount = viewTypeCount;
     }
+
+    /**
+     * Enables a cache of the cards built from the cursor.
+     * The cache should be bigger than the number of visible rows.
+     *
+     * @param maxCards max number of cached cards. Use 0 to disable the cache.
+     */
+    public void setCardCacheSize(int maxCards) {
+        if (maxCards <= 0) {
+            mCardCache = null;
+            mRecycledCards.clear();
+            return;
+        }
+
+        mCardCache = new LruCache<Long, Card>(maxCards) {
+            @Override
+            protected void entryRemoved(boolean evicted, Long key, Card oldValue, Card newValue) {
+                if (mRebindCards && oldValue != null && mRecycledCards.size() < MAX_RECYCLED_CARDS)
+                    mRecycledCards.offer(oldValue);
+            }
+        };
+    }
+
+    /**
+     * Indicates if the cards are rebound instead of being created again
+     *
+     * @return <code>true</code> if the cards are rebound
+     */
+    public boolean isRebindCards() {
+        return mRebindCards;
+    }
+
+    /**
+     * Enables the rebind of a card instance which is no longer displayed,
+     * using {@link #getCardFromCursor(Cursor, Card)}.
+     *
+     * @param rebindCards <code>true</code> to rebind the cards
+     */
+    public void setRebindCards(boolean rebindCards) {
+        mRebindCards = rebindCards;
+        if (!rebindCards)
+            mRecycledCards.clear();
+    }
 }
@@ -20,12 +20,10 @@ package com.android.cards.internal.dismissanimation;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.os.SystemClock;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.AbsListView;
 import android.widget.ListView;
 
@@ -40,6 +38,7 @@ import com.android.cards.internal.CardArrayAdapter;
 import com.android.cards.internal.base.BaseCardArrayAdapter;
 import com.android.cards.view.CardListView;
 import com.android.cards.view.base.CardViewWrapper;
+import com.android.cards.view.helper.CardDismissCollapseAnimator;
 import com.android.cards.view.listener.SwipeDismissListViewTouchListener;
 
 /**
@@ -59,6 +58,11 @@ public abstract class BaseDismissAnimation {
     private int mDownPosition;
     private int mDismissAnimationRefCount = 0;
 
+    /**
+     * Closes the gaps of the dismissed rows
+     */
+    private CardDismissCollapseAnimator mCollapseAnimator;
+
     //--------------------------------------------------------------------------
     // Constructor
     //--------------------------------------------------------------------------
@@ -147,6 +151,10 @@ public abstract class BaseDismissAnimation {
         setupCardListView();
         if (mCardListView != null) {
             mListWidth = mCardListView.getWidth();
+
+            if (mCollapseAnimator == null)
+                mCollapseAnimator = new CardDismissCollapseAnimator(mCardListView, mAnimationTime);
+            mCollapseAnimator.setDuration(mAnimationTime);
         }
     }
 
@@ -219,18 +227,14 @@ public abstract class BaseDismissAnimation {
 
 
     protected void invokeCallbak(final View dismissView) {
-        // Animate the dismissed list item to zero-height and fire the dismiss callback when
-        // all dismissed list item animations have completed. This triggers layout on each animation
-        // frame; in the future we may want to do something smarter and more performant.
+        // Close the gap of the dismissed list item translating the following items, and fire
+        // the dismiss callback when all dismissed list item animations have completed.
+        // The list is laid out only once, when the callback removes the items.
 
         final int dismissPosition= mBaseAdapter.getPosition(((CardViewWrapper) dismissView).getCard());
+        mPendingDismisses.add(new PendingDismissData(dismissPosition, dismissView));
 
-        final ViewGroup.LayoutParams lp = dismissView.getLayoutParams();
-        final int originalHeight = dismissView.getHeight();
-
-        ValueAnimator animator = ValueAnimator.ofInt(originalHeight, 1).setDuration(mAnimationTime);
-
-        animator.addListener(new AnimatorListenerAdapter() {
+        mCollapseAnimator.collapse(dismissView, new AnimatorListenerAdapter() {
             @Override
             public void onAnimationEnd(Animator animation) {
                 --mDismissAnimationRefCount;
@@ -245,18 +249,17 @@ public abstract class BaseDismissAnimation {
                     }
                     mCallbacks.onDismiss(mCardListView, dismissPositions);
 
+                    // The following items are translated until the list is laid out again
+                    mCollapseAnimator.reset();
+
                     // Reset mDownPosition to avoid MotionEvent.ACTION_UP trying to start a dismiss
                     // animation with a stale position
                     mDownPosition = ListView.INVALID_POSITION;
 
-                    ViewGroup.LayoutParams lp;
                     for (PendingDismissData pendingDismiss : mPendingDismisses) {
                         // Reset view presentation
                         pendingDismiss.view.setAlpha(1f);
                         pendingDismiss.view.setTranslationX(0);
-                        lp = pendingDismiss.view.getLayoutParams();
-                        lp.height = 0;
-                        pendingDismiss.view.setLayoutParams(lp);
                     }
 
                     // Send a cancel event
@@ -269,17 +272,6 @@ public abstract class BaseDismissAnimation {
                 }
             }
         });
-
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                lp.height = (Integer) valueAnimator.getAnimatedValue();
-                dismissView.setLayoutParams(lp);
-            }
-        });
-
-        mPendingDismisses.add(new PendingDismissData(dismissPosition, dismissView));
-        animator.start();
     }
 
 
@@ -314,7 +306,9 @@ public abstract class BaseDismissAnimation {
             String[] itemIds=new String[reverseSortedPositions.length];
             int i=0;
 
-            //Remove cards and notifyDataSetChanged
+            //Remove cards and notifyDataSetChanged once
+            CardArrayAdapter adapter = (CardArrayAdapter) mBaseAdapter;
+            adapter.beginBatch();
             for (int position : reverseSortedPositions) {
                 Card card = mBaseAdapter.getItem(position);
                 if (card!=null){
@@ -328,7 +322,7 @@ public abstract class BaseDismissAnimation {
                     }
                 }
             }
-            mBaseAdapter.notifyDataSetChanged();
+            adapter.commit();
 
         }
     };
@@ -337,33 +331,6 @@ public abstract class BaseDismissAnimation {
 
 
 
-    private Animator createAnimatorForView(final View view) {
-        final ViewGroup.LayoutParams lp = view.getLayoutParams();
-        final int originalHeight = view.getHeight();
-
-        ValueAnimator animator = ValueAnimator.ofInt(originalHeight, 0);
-        animator.addListener(new AnimatorListenerAdapter() {
-
-            @Override
-            public void onAnimationEnd(final Animator animator) {
-                lp.height = 0;
-                view.setLayoutParams(lp);
-            }
-        });
-
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-
-            @Override
-            public void onAnimationUpdate(final ValueAnimator valueAnimator) {
-                lp.height = (Integer) valueAnimator.getAnimatedValue();
-                view.setLayoutParams(lp);
-            }
-        });
-
-        return animator;
-    }
-
-
     //--------------------------------------------------------------------------
     // Getters and setters
     //--------------------------------------------------------------------------
@@ -0,0 +1,66 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.internal.paging;
+
+import android.database.Cursor;
+
+/**
+ * A base interface for cursor adapters which load the rows in windows
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public interface PagedCursorAdapter {
+
+    /**
+     * Implement to return the total number of rows.
+     * It is called on a background thread.
+     *
+     * @return number of rows
+     */
+    int queryCount();
+
+    /**
+     * Implement to query a window of rows, for example using a <code>LIMIT offset,limit</code> clause.
+     * It is called on a background thread.
+     *
+     * @param offset position of the first row
+     * @param limit  max number of rows
+     * @return the cursor with the rows
+     */
+    Cursor queryWindow(int offset, int limit);
+
+    // -------------------------------------------------------------
+    // Default methods. You haven't to define it in your classes
+    // -------------------------------------------------------------
+
+    /**
+     * Change the underlying cursor to a new cursor. The old cursor is closed.
+     *
+     * @param cursor The new cursor to be used
+     */
+    void changeCursor(Cursor cursor);
+
+    /**
+     * Change the underlying cursor to a new cursor with the same data, keeping the cached cards.
+     * The old cursor is closed.
+     *
+     * @param cursor The new cursor to be used
+     */
+    void changeCursorKeepingCardCache(Cursor cursor);
+}
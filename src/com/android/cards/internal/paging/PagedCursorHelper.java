@@ -0,0 +1,391 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.internal.paging;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.AsyncTask;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.android.cards.R;
+
+/**
+ * Helper used by the adapters which implement {@link PagedCursorAdapter}.
+ * </p>
+ * It keeps only a window of rows in the cursor.
+ * The window is queried on a background thread and it slides with the requested positions.
+ * Sliding the window keeps the cached cards, because they are keyed by row id (or by adapter position);
+ * they are cleared only when the count is queried again.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class PagedCursorHelper {
+
+    protected static final String TAG = PagedCursorHelper.class.getSimpleName();
+
+    /**
+     * Default number of rows in a page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Default number of pages in the window
+     */
+    public static final int DEFAULT_WINDOW_PAGES = 3;
+
+    /**
+     * Tag of the placeholder views
+     */
+    private static final Object PLACEHOLDER_TAG = new Object();
+
+    protected PagedCursorAdapter mAdapter;
+
+    /**
+     * Number of rows in a page
+     */
+    protected int mPageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Number of pages in the window
+     */
+    protected int mWindowPages = DEFAULT_WINDOW_PAGES;
+
+    /**
+     * Layout used while a row is loading
+     */
+    protected int mPlaceholderLayoutId = R.layout.base_withlist_progress;
+
+    /**
+     * Total number of rows
+     */
+    protected int mTotalCount = 0;
+
+    /**
+     * Position of the first row in the window
+     */
+    protected int mWindowStart = 0;
+
+    /**
+     * Number of rows in the window
+     */
+    protected int mWindowCount = 0;
+
+    /**
+     * Task which is loading a window
+     */
+    private WindowLoaderTask mLoaderTask;
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    public PagedCursorHelper(PagedCursorAdapter adapter) {
+        mAdapter = adapter;
+    }
+
+    // -------------------------------------------------------------
+    // Loading
+    // -------------------------------------------------------------
+
+    /**
+     * Queries the count and the first window
+     */
+    public void load() {
+        startLoading(0, true);
+    }
+
+    /**
+     * Queries the count and the current window again.
+     * Call it when the data changes.
+     */
+    public void reload() {
+        startLoading(mWindowStart, true);
+    }
+
+    /**
+     * Cancels the loading and closes the cursor
+     */
+    public void close() {
+        if (mLoaderTask != null) {
+            mLoaderTask.cancel(false);
+            mLoaderTask = null;
+        }
+        mTotalCount = 0;
+        mWindowStart = 0;
+        mWindowCount = 0;
+        mAdapter.changeCursor(null);
+    }
+
+    /**
+     * Slides the window if the position is outside or near the edges of the current window.
+     * It is called when the adapter binds a position.
+     *
+     * @param position adapter position
+     */
+    public void onPositionRequested(int position) {
+        int windowSize = getWindowSize();
+        int threshold = mPageSize / 2;
+
+        boolean nearStart = mWindowStart > 0 && position < mWindowStart + threshold;
+        boolean nearEnd = mWindowStart + mWindowCount < mTotalCount
+                && position >= mWindowStart + mWindowCount - threshold;
+        if (!nearStart && !nearEnd && isInWindow(position))
+            return;
+
+        //Center the window on the page of the position
+        int start = (position / mPageSize - mWindowPages / 2) * mPageSize;
+        start = Math.max(0, Math.min(start, mTotalCount - windowSize));
+        start = Math.max(0, start - start % mPageSize);
+
+        if (start == mWindowStart && isInWindow(position))
+            return;
+        if (mLoaderTask != null && mLoaderTask.mOffset == start)
+            return;
+
+        startLoading(start, false);
+    }
+
+    private void startLoading(int offset, boolean queryCount) {
+        if (mLoaderTask != null)
+            mLoaderTask.cancel(false);
+
+        mLoaderTask = new WindowLoaderTask(offset, getWindowSize(), queryCount);
+        mLoaderTask.execute();
+    }
+
+    private void onWindowLoaded(WindowLoaderTask task, int totalCount, Cursor cursor) {
+        if (task != mLoaderTask) {
+            if (cursor != null)
+                cursor.close();
+            return;
+        }
+        mLoaderTask = null;
+
+        if (totalCount >= 0)
+            mTotalCount = totalCount;
+        mWindowStart = task.mOffset;
+        mWindowCount = cursor != null ? cursor.getCount() : 0;
+
+        //It notifies the adapter and closes the old window.
+        //A slide returns the same rows: the cached cards are still valid
+        if (task.mQueryCount)
+            mAdapter.changeCursor(cursor);
+        else
+            mAdapter.changeCursorKeepingCardCache(cursor);
+    }
+
+    /**
+     * Task used to query a window of rows
+     */
+    private class WindowLoaderTask extends AsyncTask<Void, Void, Cursor> {
+
+        private final int mOffset;
+        private final int mLimit;
+        private final boolean mQueryCount;
+        private int mCount = -1;
+
+        private WindowLoaderTask(int offset, int limit, boolean queryCount) {
+            mOffset = offset;
+            mLimit = limit;
+            mQueryCount = queryCount;
+        }
+
+        @Override
+        protected Cursor doInBackground(Void... params) {
+            try {
+                if (mQueryCount)
+                    mCount = mAdapter.queryCount();
+
+                Cursor cursor = mAdapter.queryWindow(mOffset, mLimit);
+                if (cursor != null) {
+                    //Fill the cursor window on this thread
+                    cursor.getCount();
+                }
+                return cursor;
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error loading the window at " + mOffset, e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(Cursor cursor) {
+            onWindowLoaded(this, mCount, cursor);
+        }
+
+        @Override
+        protected void onCancelled(Cursor cursor) {
+            if (cursor != null)
+                cursor.close();
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Positions
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the total number of rows
+     *
+     * @return
+     */
+    public int getCount() {
+        return mTotalCount;
+    }
+
+    /**
+     * Indicates if the position is inside the loaded window
+     *
+     * @param position adapter position
+     * @return
+     */
+    public boolean isInWindow(int position) {
+        return position >= mWindowStart && position < mWindowStart + mWindowCount;
+    }
+
+    /**
+     * Converts an adapter position to a cursor position
+     *
+     * @param position adapter position
+     * @return the cursor position
+     */
+    public int toCursorPosition(int position) {
+        return position - mWindowStart;
+    }
+
+    /**
+     * Converts a cursor position to an adapter position
+     *
+     * @param cursorPosition cursor position
+     * @return the adapter position
+     */
+    public int toAdapterPosition(int cursorPosition) {
+        return cursorPosition + mWindowStart;
+    }
+
+    /**
+     * Returns the cache key of the current cursor row
+     *
+     * @param cursor      cursor moved to the row
+     * @param rowIdColumn index of the id column, or -1
+     * @return the row id, or the adapter position if the cursor doesn't have an id column
+     */
+    public long getCardCacheKey(Cursor cursor, int rowIdColumn) {
+        if (rowIdColumn >= 0)
+            return cursor.getLong(rowIdColumn);
+        return toAdapterPosition(cursor.getPosition());
+    }
+
+    // -------------------------------------------------------------
+    // Placeholders
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the view type count of the adapter.
+     * The placeholders have their own view type, so a card row is never recycled as a placeholder.
+     *
+     * @param cardViewTypeCount view type count of the cards
+     * @return
+     */
+    public int getViewTypeCount(int cardViewTypeCount) {
+        return cardViewTypeCount + 1;
+    }
+
+    /**
+     * Returns the view type of the placeholders, after the card types
+     *
+     * @param cardViewTypeCount view type count of the cards
+     * @return
+     */
+    public int getPlaceholderViewType(int cardViewTypeCount) {
+        return cardViewTypeCount;
+    }
+
+    /**
+     * Returns the view displayed while a row is loading.
+     * The old view is reused only if it is a placeholder.
+     *
+     * @param context     context
+     * @param convertView old view
+     * @param parent      parent
+     * @return the placeholder view
+     */
+    public View getPlaceholderView(Context context, View convertView, ViewGroup parent) {
+        if (convertView != null && convertView.getTag() == PLACEHOLDER_TAG)
+            return convertView;
+        LayoutInflater inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+        View view = inflater.inflate(mPlaceholderLayoutId, parent, false);
+        view.setTag(PLACEHOLDER_TAG);
+        return view;
+    }
+
+    // -------------------------------------------------------------
+    //  Getters and Setters
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the number of rows in the window
+     *
+     * @return
+     */
+    public int getWindowSize() {
+        return mPageSize * mWindowPages;
+    }
+
+    /**
+     * Returns the position of the first row in the window
+     *
+     * @return
+     */
+    public int getWindowStart() {
+        return mWindowStart;
+    }
+
+    /**
+     * Sets the number of rows in a page
+     *
+     * @param pageSize
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize > 0)
+            mPageSize = pageSize;
+    }
+
+    /**
+     * Sets the number of pages kept in the window
+     *
+     * @param windowPages
+     */
+    public void setWindowPages(int windowPages) {
+        if (windowPages > 0)
+            mWindowPages = windowPages;
+    }
+
+    /**
+     * Sets the layout displayed while a row is loading
+     *
+     * @param placeholderLayoutId layout resource id
+     */
+    public void setPlaceholderLayoutId(int placeholderLayoutId) {
+        mPlaceholderLayoutId = placeholderLayoutId;
+    }
+}
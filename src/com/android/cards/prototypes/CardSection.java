@@ -25,7 +25,6 @@ package com.android.cards.prototypes;
 public class CardSection {
 
     int firstPosition;
-    int sectionedPosition;
     CharSequence title;
 
     // -------------------------------------------------------------
@@ -37,6 +36,14 @@ public class CardSection {
         this.title = title;
     }
 
+    /**
+     *
+     * @return the position of the first card in the section
+     */
+    public int getFirstPosition() {
+        return firstPosition;
+    }
+
     /**
      *
      * @return the title
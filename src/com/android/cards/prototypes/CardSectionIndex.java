@@ -0,0 +1,203 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.prototypes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorted index of {@link CardSection} used by the sectioned adapters.
+ * </p>
+ * The sections are sorted by first position: the sectioned position of the section at index i
+ * is its first position + i, so all the position mappings are binary searches.
+ * There is only one section for each first position, which identifies the section (for example in its stable id).
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class CardSectionIndex {
+
+    /**
+     * Card Sections sorted by first position.
+     */
+    private final ArrayList<CardSection> mCardSections = new ArrayList<CardSection>();
+
+    /**
+     * Comparator used to sort the sections by first position
+     */
+    private static final Comparator<CardSection> FIRST_POSITION_COMPARATOR = new Comparator<CardSection>() {
+        @Override
+        public int compare(CardSection o, CardSection o1) {
+            return (o.firstPosition == o1.firstPosition)
+                    ? 0
+                    : ((o.firstPosition < o1.firstPosition) ? -1 : 1);
+        }
+    };
+
+    // -------------------------------------------------------------
+    // Sections
+    // -------------------------------------------------------------
+
+    /**
+     * Replaces all sections.
+     * If more sections have the same first position, only the first one in the array is kept.
+     *
+     * @param cardSections
+     */
+    public void setCardSections(CardSection[] cardSections) {
+        mCardSections.clear();
+
+        if (cardSections != null) {
+            //The sort is stable: the first section of each position comes first
+            Arrays.sort(cardSections, FIRST_POSITION_COMPARATOR);
+            for (CardSection cardSection : cardSections) {
+                int size = mCardSections.size();
+                if (size == 0 || mCardSections.get(size - 1).firstPosition != cardSection.firstPosition)
+                    mCardSections.add(cardSection);
+            }
+        }
+    }
+
+    /**
+     * Inserts the section keeping the sections sorted.
+     * The following sections shift by one without sorting them again.
+     * The section isn't inserted if there is already a section with the same first position.
+     *
+     * @param cardSection section
+     * @return the index of the inserted section, or -1 if it wasn't inserted
+     */
+    public int insert(CardSection cardSection) {
+        int index = countSectionsBefore(cardSection.firstPosition);
+        if (index > 0 && mCardSections.get(index - 1).firstPosition == cardSection.firstPosition)
+            return -1;
+        mCardSections.add(index, cardSection);
+        return index;
+    }
+
+    /**
+     * Removes the section
+     *
+     * @param cardSection section
+     * @return the index of the removed section, or -1 if it wasn't found
+     */
+    public int remove(CardSection cardSection) {
+        int index = mCardSections.indexOf(cardSection);
+        if (index >= 0)
+            mCardSections.remove(index);
+        return index;
+    }
+
+    /**
+     * Returns the number of sections
+     *
+     * @return
+     */
+    public int size() {
+        return mCardSections.size();
+    }
+
+    /**
+     * Returns the section at index
+     *
+     * @param index index of the section
+     * @return
+     */
+    public CardSection get(int index) {
+        return mCardSections.get(index);
+    }
+
+    // -------------------------------------------------------------
+    // Positions
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the sectioned position of the section at index
+     *
+     * @param index index of the section
+     * @return
+     */
+    public int getSectionedPosition(int index) {
+        return mCardSections.get(index).firstPosition + index;
+    }
+
+    /**
+     * Binary search of the section displayed at the sectioned position
+     *
+     * @param sectionedPosition
+     * @return the index of the section, or (-(insertion point) - 1) if the position isn't a section.
+     * The insertion point is the number of sections displayed before the position.
+     */
+    public int indexOfSectionedPosition(int sectionedPosition) {
+        int low = 0;
+        int high = mCardSections.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midPosition = getSectionedPosition(mid);
+            if (midPosition < sectionedPosition) {
+                low = mid + 1;
+            } else if (midPosition > sectionedPosition) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return ~low;
+    }
+
+    /**
+     * Binary search of the number of sections displayed before the position
+     *
+     * @param position
+     * @return the number of sections with a first position less than or equal to position
+     */
+    public int countSectionsBefore(int position) {
+        int low = 0;
+        int high = mCardSections.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mCardSections.get(mid).firstPosition <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the section which contains the sectioned position
+     *
+     * @param sectionedPosition
+     * @return the index of the section, or -1 if the position is before the first section
+     */
+    public int indexOfSectionContaining(int sectionedPosition) {
+        int index = indexOfSectionedPosition(sectionedPosition);
+        return index >= 0 ? index : ~index - 1;
+    }
+
+    /**
+     * Returns the sectioned position from the position
+     *
+     * @param position
+     * @return
+     */
+    public int positionToSectionedPosition(int position) {
+        return position + countSectionsBefore(position);
+    }
+}
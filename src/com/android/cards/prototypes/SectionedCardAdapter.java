@@ -28,9 +28,6 @@ import android.widget.BaseAdapter;
 import android.widget.ListView;
 import android.widget.TextView;
 
-import java.util.Arrays;
-import java.util.Comparator;
-
 import com.android.cards.R;
 import com.android.cards.internal.CardArrayAdapter;
 
@@ -59,9 +56,9 @@ public class SectionedCardAdapter extends BaseAdapter {
     private BaseAdapter mBaseAdapter;
 
     /**
-     * Array with Card Sections
+     * Index with Card Sections
      */
-    private SparseArray<CardSection> mCardSections = new SparseArray<CardSection>();
+    private final CardSectionIndex mCardSections = new CardSectionIndex();
 
     // -------------------------------------------------------------
     // Constructors
@@ -108,28 +105,13 @@ public class SectionedCardAdapter extends BaseAdapter {
     // -------------------------------------------------------------
 
     /**
-     * Sets the Card sections
+     * Sets the Card sections.
+     * Only one section is kept for each first position.
      *
      * @param cardSections
      */
     public void setCardSections(CardSection[] cardSections) {
-        mCardSections.clear();
-
-        Arrays.sort(cardSections, new Comparator<CardSection>() {
-            @Override
-            public int compare(CardSection o, CardSection o1) {
-                return (o.firstPosition == o1.firstPosition)
-                        ? 0
-                        : ((o.firstPosition < o1.firstPosition) ? -1 : 1);
-            }
-        });
-
-        int offset = 0; // offset positions for the headers we're adding
-        for (CardSection cardSection : cardSections) {
-            cardSection.sectionedPosition = cardSection.firstPosition + offset;
-            mCardSections.append(cardSection.sectionedPosition, cardSection);
-            ++offset;
-        }
+        mCardSections.setCardSections(cardSections);
 
         notifyDataSetChanged();
     }
@@ -145,14 +127,7 @@ public class SectionedCardAdapter extends BaseAdapter {
      * @return
      */
     public int positionToSectionedPosition(int position) {
-        int offset = 0;
-        for (int i = 0; i < mCardSections.size(); i++) {
-            if (mCardSections.valueAt(i).firstPosition > position) {
-                break;
-            }
-            ++offset;
-        }
-        return position + offset;
+        return mCardSections.positionToSectionedPosition(position);
     }
 
     /**
@@ -161,18 +136,13 @@ public class SectionedCardAdapter extends BaseAdapter {
      * @return
      */
     public int sectionedPositionToPosition(int sectionedPosition) {
-        if (isSectionHeaderPosition(sectionedPosition)) {
+        int index = mCardSections.indexOfSectionedPosition(sectionedPosition);
+        if (index >= 0) {
             return ListView.INVALID_POSITION;
         }
 
-        int offset = 0;
-        for (int i = 0; i < mCardSections.size(); i++) {
-            if (mCardSections.valueAt(i).sectionedPosition > sectionedPosition) {
-                break;
-            }
-            --offset;
-        }
-        return sectionedPosition + offset;
+        //~index is the number of sections before the sectioned position
+        return sectionedPosition - ~index;
     }
 
     /**
@@ -182,7 +152,18 @@ public class SectionedCardAdapter extends BaseAdapter {
      * @return
      */
     public boolean isSectionHeaderPosition(int position) {
-        return mCardSections.get(position) != null;
+        return mCardSections.indexOfSectionedPosition(position) >= 0;
+    }
+
+    /**
+     * Returns the section displayed at the sectioned position
+     *
+     * @param sectionedPosition
+     * @return the section, or <code>null</code> if the position isn't a section
+     */
+    public CardSection getCardSection(int sectionedPosition) {
+        int index = mCardSections.indexOfSectionedPosition(sectionedPosition);
+        return index >= 0 ? mCardSections.get(index) : null;
     }
 
     @Override
@@ -192,31 +173,35 @@ public class SectionedCardAdapter extends BaseAdapter {
 
     @Override
     public Object getItem(int position) {
-        return isSectionHeaderPosition(position)
-                ? mCardSections.get(position)
-                : mBaseAdapter.getItem(sectionedPositionToPosition(position));
+        int index = mCardSections.indexOfSectionedPosition(position);
+        return index >= 0
+                ? mCardSections.get(index)
+                : mBaseAdapter.getItem(position - ~index);
     }
 
     @Override
     public long getItemId(int position) {
-        return isSectionHeaderPosition(position)
-                ? Integer.MAX_VALUE - mCardSections.indexOfKey(position)
-                : mBaseAdapter.getItemId(sectionedPositionToPosition(position));
+        int index = mCardSections.indexOfSectionedPosition(position);
+        return index >= 0
+                ? Integer.MAX_VALUE - index
+                : mBaseAdapter.getItemId(position - ~index);
     }
 
     @Override
     public int getItemViewType(int position) {
-        return isSectionHeaderPosition(position)
+        int index = mCardSections.indexOfSectionedPosition(position);
+        return index >= 0
                 ? getViewTypeCount() - 1
-                : mBaseAdapter.getItemViewType(sectionedPositionToPosition(position));
+                : mBaseAdapter.getItemViewType(position - ~index);
     }
 
     @Override
     public boolean isEnabled(int position) {
+        int index = mCardSections.indexOfSectionedPosition(position);
         //noinspection SimplifiableConditionalExpression
-        return isSectionHeaderPosition(position)
+        return index >= 0
                 ? false
-                : mBaseAdapter.isEnabled(sectionedPositionToPosition(position));
+                : mBaseAdapter.isEnabled(position - ~index);
     }
 
     @Override
@@ -241,10 +226,11 @@ public class SectionedCardAdapter extends BaseAdapter {
 
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
-        if (isSectionHeaderPosition(position)) {
+        int index = mCardSections.indexOfSectionedPosition(position);
+        if (index >= 0) {
            return internalSectionView(position, convertView, parent);
         } else {
-            return mBaseAdapter.getView(sectionedPositionToPosition(position), convertView, parent);
+            return mBaseAdapter.getView(position - ~index, convertView, parent);
         }
     }
 
@@ -277,31 +263,24 @@ public class SectionedCardAdapter extends BaseAdapter {
     protected View getSectionView(int position, View view, ViewGroup parent) {
 
         TextView textView = (TextView) view.findViewById(R.id.card_section_simple_title);
-        if (textView != null)
-            textView.setText(mCardSections.get(position).title);
+        CardSection cardSection = getCardSection(position);
+        if (textView != null && cardSection != null)
+            textView.setText(cardSection.title);
 
         return view;
     }
 
     /**
      * Use this method to add a single {@link CardSection}.</p>
-     * If you want to add more CardSections use the method {@link #addCardSections(CardSection[])}
+     * If you want to add more CardSections use the method {@link #addCardSections(CardSection[])}.
+     * It is ignored if there is already a section with the same first position.
      *
      * @param cardSection to be added
      */
     public void addCardSection(CardSection cardSection) {
 
-        if (cardSection != null) {
-            int oldSize = mCardSections.size();
-            CardSection[] newCardSections = new CardSection[oldSize + 1];
-
-            //Get current sections
-            for (int i = 0; i < mCardSections.size(); i++) {
-                newCardSections[i] = mCardSections.valueAt(i);
-            }
-            //Add new section
-            newCardSections[oldSize] = cardSection;
-            setCardSections(newCardSections);
+        if (cardSection != null && mCardSections.insert(cardSection) >= 0) {
+            notifyDataSetChanged();
         }
     }
 
@@ -314,21 +293,27 @@ public class SectionedCardAdapter extends BaseAdapter {
 
         if (cardSections != null && cardSections.length>0) {
 
-            int oldSize = mCardSections.size();
-
-            //Get current sections
-            CardSection[] newCardSections = new CardSection[oldSize + cardSections.length];
-            for (int i = 0; i < mCardSections.size(); i++) {
-                newCardSections[i] = mCardSections.valueAt(i);
+            for (CardSection cardSection : cardSections) {
+                if (cardSection != null)
+                    mCardSections.insert(cardSection);
             }
+            notifyDataSetChanged();
+        }
+    }
 
-            //Add new sections
-            for (int i = 0; i < cardSections.length; i++){
-                newCardSections[i + oldSize] = cardSections[i];
-            }
+    /**
+     * Removes a {@link CardSection}
+     *
+     * @param cardSection to be removed
+     * @return <code>true</code> if the section was removed
+     */
+    public boolean removeCardSection(CardSection cardSection) {
 
-            setCardSections(newCardSections);
+        if (cardSection != null && mCardSections.remove(cardSection) >= 0) {
+            notifyDataSetChanged();
+            return true;
         }
+        return false;
     }
 
     // -------------------------------------------------------------
@@ -336,11 +321,15 @@ public class SectionedCardAdapter extends BaseAdapter {
     // -------------------------------------------------------------
 
     /**
-     * Returns the sections
+     * Returns a copy of the sections, using the sectioned positions as keys
      * @return
      */
     public SparseArray<CardSection> getCardSections() {
-        return mCardSections;
+        SparseArray<CardSection> cardSections = new SparseArray<CardSection>(mCardSections.size());
+        for (int i = 0; i < mCardSections.size(); i++) {
+            cardSections.append(mCardSections.getSectionedPosition(i), mCardSections.get(i));
+        }
+        return cardSections;
     }
 
 }
@@ -28,6 +28,8 @@ import android.view.ViewGroup;
 import com.android.cards.R;
 import com.android.cards.internal.Card;
 import com.android.cards.recyclerview.view.CardRecyclerView;
+import com.android.cards.utils.TextLayoutPrecomputer;
+import com.android.cards.view.base.CardViewPool;
 import com.android.cards.view.base.CardViewWrapper;
 
 /**
@@ -62,6 +64,31 @@ public abstract class BaseRecyclerViewAdapter extends RecyclerView.Adapter<BaseR
      */
     protected CardRecyclerView mCardRecyclerView;
 
+    /**
+     * Pool with pre-inflated rows. It can be <code>null</code>.
+     */
+    protected CardViewPool mCardViewPool;
+
+    /**
+     * Precomputes the text layouts of the next cards. It can be <code>null</code>.
+     */
+    protected TextLayoutPrecomputer mTextLayoutPrecomputer;
+
+    /**
+     * Cards read by the {@link TextLayoutPrecomputer}
+     */
+    private final TextLayoutPrecomputer.CardSource mCardSource = new TextLayoutPrecomputer.CardSource() {
+        @Override
+        public int getCardCount() {
+            return getItemCount();
+        }
+
+        @Override
+        public Card getCard(int position) {
+            return getItem(position);
+        }
+    };
+
     // -------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------
@@ -95,14 +122,48 @@ public abstract class BaseRecyclerViewAdapter extends RecyclerView.Adapter<BaseR
     public CardViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
 
         if (mRowLayoutIds == null || mRowLayoutIds.length == 0) {
-            final View view = LayoutInflater.from(mContext).inflate(mRowLayoutId, parent, false);
+            final View view = inflateRowView(mRowLayoutId, parent);
             return new CardViewHolder(view);
         } else {
-            final View view = LayoutInflater.from(mContext).inflate(mRowLayoutIds[viewType], parent, false);
+            final View view = inflateRowView(mRowLayoutIds[viewType], parent);
             return new CardViewHolder(view);
         }
     }
 
+    /**
+     * Returns a new row, taken from the {@link CardViewPool} if it is available.
+     * Otherwise the row is inflated.
+     *
+     * @param layout layout of the row
+     * @param parent parent view
+     * @return the row
+     */
+    protected View inflateRowView(@LayoutRes int layout, ViewGroup parent) {
+        if (mCardViewPool != null) {
+            View view = mCardViewPool.obtain(layout);
+            //Refill the pool when the main thread is idle
+            mCardViewPool.prewarm(parent, layout);
+            if (view != null)
+                return view;
+        }
+        return LayoutInflater.from(mContext).inflate(layout, parent, false);
+    }
+
+    /**
+     * Fills the {@link CardViewPool} with the rows used by this adapter, for each view type
+     */
+    protected void prewarmCardViewPool() {
+        if (mCardViewPool == null || mCardRecyclerView == null)
+            return;
+
+        if (mRowLayoutIds == null || mRowLayoutIds.length == 0) {
+            mCardViewPool.prewarm(mCardRecyclerView, mRowLayoutId);
+        } else {
+            for (int layout : mRowLayoutIds)
+                mCardViewPool.prewarm(mCardRecyclerView, layout);
+        }
+    }
+
     @Override
     public void onBindViewHolder(CardViewHolder cardViewHolder, int position) {
 
@@ -132,10 +193,34 @@ public abstract class BaseRecyclerViewAdapter extends RecyclerView.Adapter<BaseR
             }
 
             //Setup swipeable animation
-            //setupSwipeableAnimation(mCard, mCardView);
+            setupSwipeableAnimation(mCard, mCardView);
+
+            //Precompute the texts of the next cards
+            prepareTextLayouts(cardViewHolder.itemView, position);
         }
     }
 
+    /**
+     * Learns the title styles from the bound view and precomputes the titles of the next cards in the scroll direction
+     *
+     * @param view     bound view
+     * @param position bound position
+     */
+    protected void prepareTextLayouts(View view, int position) {
+        if (mTextLayoutPrecomputer != null)
+            mTextLayoutPrecomputer.onCardBound(view, position, mCardSource);
+    }
+
+    /**
+     * Sets the swipe action for a card.
+     * The base adapter doesn't support it: adapters which can remove their cards override this method.
+     *
+     * @param card     {@link Card}
+     * @param cardView {@link com.android.cards.view.base.CardViewWrapper}
+     */
+    protected void setupSwipeableAnimation(Card card, CardViewWrapper cardView) {
+    }
+
     /**
      * Overrides the default collapse/expand animation in a List
      *
@@ -206,6 +291,47 @@ public abstract class BaseRecyclerViewAdapter extends RecyclerView.Adapter<BaseR
      */
     public void setCardRecyclerView(CardRecyclerView cardRecyclerView) {
         mCardRecyclerView = cardRecyclerView;
+        prewarmCardViewPool();
+    }
+
+    /**
+     * Returns the pool with pre-inflated rows
+     *
+     * @return the pool, or <code>null</code>
+     */
+    public CardViewPool getCardViewPool() {
+        return mCardViewPool;
+    }
+
+    /**
+     * Sets the pool with pre-inflated rows.
+     * The adapter takes the rows from the pool before inflating a new row.
+     * Use {@link CardViewPool#setMaxSize(int, int)} to size the pool for each layout in {@link #setRowLayoutIds(int[])}.
+     *
+     * @param cardViewPool the pool, or <code>null</code> to disable it
+     */
+    public void setCardViewPool(CardViewPool cardViewPool) {
+        mCardViewPool = cardViewPool;
+        prewarmCardViewPool();
+    }
+
+    /**
+     * Returns the text layout precomputer
+     *
+     * @return the precomputer, or <code>null</code>
+     */
+    public TextLayoutPrecomputer getTextLayoutPrecomputer() {
+        return mTextLayoutPrecomputer;
+    }
+
+    /**
+     * Sets the text layout precomputer.
+     * The titles of the cards around the bound position are laid out in a background thread.
+     *
+     * @param textLayoutPrecomputer the precomputer, or <code>null</code> to disable it
+     */
+    public void setTextLayoutPrecomputer(TextLayoutPrecomputer textLayoutPrecomputer) {
+        mTextLayoutPrecomputer = textLayoutPrecomputer;
     }
 
 }
@@ -18,27 +18,87 @@
 
 package com.android.cards.recyclerview.internal;
 
+import android.app.Activity;
 import android.content.Context;
+import android.content.res.Resources;
+import android.os.Parcelable;
 import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.View;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+import com.android.cards.R;
 import com.android.cards.internal.Card;
+import com.android.cards.internal.DismissedCard;
+import com.android.cards.recyclerview.view.CardRecyclerView;
+import com.android.cards.recyclerview.view.SwipeDismissRecyclerViewTouchListener;
+import com.android.cards.view.base.CardViewWrapper;
+import com.android.cards.view.listener.UndoBarController;
+import com.android.cards.view.listener.UndoCard;
+import com.android.cards.view.listener.dismiss.DefaultDismissableManager;
+import com.android.cards.view.listener.dismiss.Dismissable;
 
 /**
  * RecyclerView with an ArrayAdapter.
+ * </p>
+ * Swipeable cards ({@link Card#setSwipeable(boolean)}) are dismissed with a swipe,
+ * and the dismiss can be undone with {@link #setEnableUndo(boolean)}.
+ * Cards are removed and restored with {@link #notifyItemRemoved(int)} and {@link #notifyItemInserted(int)}.
  *
  * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
  */
-public class CardArrayRecyclerViewAdapter extends BaseRecyclerViewAdapter {
+public class CardArrayRecyclerViewAdapter extends BaseRecyclerViewAdapter implements UndoBarController.UndoListener {
+
+    protected static String TAG = "CardArrayRecyclerViewAdapter";
+
+    /**
+     * Max number of dismissed cards kept for the undo action
+     */
+    protected static final int MAX_DISMISSED_CARDS = 128;
 
     /**
      * Internal objects
      */
     protected List<Card> mCards;
 
+    /**
+     * Listener invoked when a card is swiped
+     */
+    protected SwipeDismissRecyclerViewTouchListener mOnTouchListener;
+
+    /**
+     * Dismissable Manager
+     */
+    protected Dismissable mDismissable;
+
+    /**
+     * Used to enable an undo message after a swipe action
+     */
+    protected boolean mEnableUndo = false;
+
+    /**
+     * Undo Controller
+     */
+    protected UndoBarController mUndoBarController;
+
+    /**
+     * Class to define undobar ui elements
+     */
+    protected UndoBarController.UndoBarUIElements mUndoBarUIElements;
+
+    /**
+     * Dismissed cards which can be restored by the undo action, anchored to the card above them.
+     * It uses the card id value as key.
+     */
+    protected LruCache<String /* id */, DismissedCard> mDismissedCards =
+            new LruCache<String, DismissedCard>(MAX_DISMISSED_CARDS);
+
     // -------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------
@@ -162,4 +222,222 @@ public class CardArrayRecyclerViewAdapter extends BaseRecyclerViewAdapter {
         notifyItemRemoved(position);
         return result;
     }
+
+    // -------------------------------------------------------------
+    //  SwipeListener and undo action
+    // -------------------------------------------------------------
+
+    @Override
+    protected void setupSwipeableAnimation(Card card, CardViewWrapper cardView) {
+        //A single listener handles the swipe of all the rows
+        if (card.isSwipeable() && mOnTouchListener == null && mCardRecyclerView != null) {
+            mOnTouchListener = new SwipeDismissRecyclerViewTouchListener(mCardRecyclerView, mCallback);
+
+            //Configure the default DismissableManager
+            if (mDismissable == null) mDismissable = new DefaultDismissableManager();
+            mOnTouchListener.setDismissable(mDismissable);
+
+            mCardRecyclerView.addOnItemTouchListener(mOnTouchListener);
+        }
+    }
+
+    /**
+     * Listener invoked when a card is swiped
+     */
+    SwipeDismissRecyclerViewTouchListener.DismissCallbacks mCallback = new SwipeDismissRecyclerViewTouchListener.DismissCallbacks() {
+
+        @Override
+        public boolean canDismiss(int position, Card card) {
+            if (mDismissable == null)
+                return card.isSwipeable();
+            return mDismissable.isDismissable(position, card);
+        }
+
+        @Override
+        public void onDismiss(RecyclerView recyclerView, final Card card) {
+            //The RecyclerView position includes the rows of a wrapping adapter (i.e. section headers):
+            //use the index of the card in this adapter
+            int position = mCards.indexOf(card);
+            if (position < 0) {
+                Log.e(TAG, "Error on swipe action. Impossible to retrieve the card from the adapter");
+                return;
+            }
+
+            boolean undo = isEnableUndo() && mUndoBarController != null && card.getId() != null;
+            if (undo) {
+                //Keep the anchor before removing the card
+                for (DismissedCard dismissed : DismissedCard.create(mCards, Collections.singletonList(card))) {
+                    mDismissedCards.put(card.getId(), dismissed);
+                }
+            }
+            remove(position);
+
+            if (card.getOnSwipeListener() != null) {
+                card.getOnSwipeListener().onSwipe(card);
+            }
+
+            //Check for a undo message to confirm
+            if (undo) {
+                int[] itemPositions = new int[]{position};
+                String[] itemIds = new String[]{card.getId()};
+
+                //MessageUndoBar
+                String messageUndoBar = null;
+                if (mUndoBarController.getUndoBarUIElements() != null) {
+                    messageUndoBar = mUndoBarController.getUndoBarUIElements().getMessageUndo(null, itemIds, itemPositions);
+                }
+
+                //Default message if null
+                if (messageUndoBar == null && mContext != null) {
+                    Resources res = mContext.getResources();
+                    messageUndoBar = res.getQuantityString(R.plurals.list_card_undo_items, 1, 1);
+                }
+
+                mUndoBarController.showUndoBar(
+                        false,
+                        messageUndoBar,
+                        new UndoCard(itemPositions, itemIds),
+                        new UndoBarController.UndoBarHideListener() {
+                            @Override
+                            public void onUndoBarHide(boolean undoOccurred) {
+                                // Forget the dismissed card, if the undo was not triggered
+                                if (!undoOccurred) {
+                                    if (card.getOnUndoHideSwipeListListener() != null)
+                                        card.getOnUndoHideSwipeListListener().onUndoHideSwipe(card);
+                                    DismissedCard dismissed = mDismissedCards.get(card.getId());
+                                    if (dismissed != null && dismissed.card == card)
+                                        mDismissedCards.remove(card.getId());
+                                }
+                            }
+                        });
+            }
+        }
+    };
+
+    // -------------------------------------------------------------
+    //  Undo Default Listener
+    // -------------------------------------------------------------
+
+    @Override
+    public void onUndo(Parcelable token) {
+        if (token != null) {
+
+            UndoCard item = (UndoCard) token;
+            String[] itemIds = item.itemId;
+
+            if (itemIds != null) {
+                ArrayList<DismissedCard> restoredCards = new ArrayList<DismissedCard>(itemIds.length);
+                for (String id : itemIds) {
+                    if (id == null) {
+                        Log.w(TAG, "You have to set a id value to use the undo action");
+                        continue;
+                    }
+                    DismissedCard dismissed = mDismissedCards.remove(id);
+                    if (dismissed != null)
+                        restoredCards.add(dismissed);
+                }
+
+                //Each card goes back below its anchor card, whatever was undone before it
+                int[] indexes = DismissedCard.sortForInsert(mCards, restoredCards);
+                for (int i = 0; i < indexes.length; i++) {
+                    Card card = restoredCards.get(i).card;
+                    add(indexes[i], card);
+                    if (card.getOnUndoSwipeListListener() != null)
+                        card.getOnUndoSwipeListListener().onUndoSwipe(card);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates if the undo message is enabled after a swipe action
+     *
+     * @return <code>true</code> if the undo message is enabled
+     */
+    public boolean isEnableUndo() {
+        return mEnableUndo;
+    }
+
+    /**
+     * Enables an undo message after a swipe action
+     *
+     * @param enableUndo <code>true</code> to enable an undo message
+     */
+    public void setEnableUndo(boolean enableUndo) {
+        mEnableUndo = enableUndo;
+        if (enableUndo) {
+            //Create a UndoController
+            if (mUndoBarController == null) {
+
+                if (mUndoBarUIElements == null)
+                    mUndoBarUIElements = new UndoBarController.DefaultUndoBarUIElements();
+
+                if (mContext != null && mContext instanceof Activity) {
+                    View undobar = ((Activity) mContext).findViewById(mUndoBarUIElements.getUndoBarId());
+                    if (undobar != null) {
+                        mUndoBarController = new UndoBarController(undobar, this, mUndoBarUIElements);
+                    }
+                } else {
+                    Log.e(TAG, "Undo Action requires a valid Activity context");
+                    throw new IllegalArgumentException("Undo Action requires a valid Activity context");
+                }
+            }
+        } else {
+            if (mUndoBarController != null)
+                mUndoBarController.hideUndoBar(true);
+            mUndoBarController = null;
+            mDismissedCards.evictAll();
+        }
+    }
+
+    // -------------------------------------------------------------
+    //  Getters and Setters
+    // -------------------------------------------------------------
+
+    @Override
+    public void setCardRecyclerView(CardRecyclerView cardRecyclerView) {
+        if (mOnTouchListener != null && mCardRecyclerView != null && mCardRecyclerView != cardRecyclerView) {
+            mCardRecyclerView.removeOnItemTouchListener(mOnTouchListener);
+            mOnTouchListener = null;
+        }
+        super.setCardRecyclerView(cardRecyclerView);
+    }
+
+    /**
+     * Return the UndoBarController for undo action
+     *
+     * @return {@link UndoBarController}
+     */
+    public UndoBarController getUndoBarController() {
+        return mUndoBarController;
+    }
+
+    /**
+     * Set the undobar ui elements.
+     * It has to be called before {@link #setEnableUndo(boolean)}.
+     *
+     * @param undoBarUIElements
+     */
+    public void setUndoBarUIElements(UndoBarController.UndoBarUIElements undoBarUIElements) {
+        mUndoBarUIElements = undoBarUIElements;
+    }
+
+    /**
+     * Returns the swipe listener, or <code>null</code> until a swipeable card is bound
+     *
+     * @return
+     */
+    public SwipeDismissRecyclerViewTouchListener getSwipeTouchListener() {
+        return mOnTouchListener;
+    }
+
+    /**
+     * Sets a custom DismissableManager
+     * @param dismissable
+     */
+    public void setDismissable(Dismissable dismissable) {
+        mDismissable = dismissable;
+        if (mOnTouchListener != null)
+            mOnTouchListener.setDismissable(dismissable);
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.recyclerview.internal;
+
+import java.util.List;
+
+import com.android.cards.internal.Card;
+
+/**
+ * Page-keyed source of cards used by {@link CardPagedRecyclerViewAdapter}.
+ * </p>
+ * Each page is identified by a key (for example a page number, a token or the id of the last card).
+ * The methods can load the cards synchronously or on a background thread:
+ * the callback can be invoked on any thread.
+ *
+ * @param <Key> type of the page key
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public interface CardPageDataSource<Key> {
+
+    /**
+     * Loads the first page
+     *
+     * @param pageSize requested number of cards
+     * @param callback callback to invoke with the result
+     */
+    void loadInitial(int pageSize, LoadCallback<Key> callback);
+
+    /**
+     * Loads the page before the page identified by the key
+     *
+     * @param key      previous key returned with the first loaded page
+     * @param pageSize requested number of cards
+     * @param callback callback to invoke with the result
+     */
+    void loadBefore(Key key, int pageSize, LoadCallback<Key> callback);
+
+    /**
+     * Loads the page after the page identified by the key
+     *
+     * @param key      next key returned with the last loaded page
+     * @param pageSize requested number of cards
+     * @param callback callback to invoke with the result
+     */
+    void loadAfter(Key key, int pageSize, LoadCallback<Key> callback);
+
+    /**
+     * Callback invoked when a page is loaded, or when it can't be loaded
+     */
+    public interface LoadCallback<Key> {
+
+        /**
+         * Called with the loaded page
+         *
+         * @param cards       cards of the page
+         * @param previousKey key of the page before, or <code>null</code> if this is the first page
+         * @param nextKey     key of the page after, or <code>null</code> if this is the last page
+         */
+        void onResult(List<Card> cards, Key previousKey, Key nextKey);
+
+        /**
+         * Called when the page can't be loaded.
+         * </p>
+         * The adapter stops loading in that direction until
+         * {@link CardPagedRecyclerViewAdapter#retry()} is called.
+         *
+         * @param error the error
+         */
+        void onError(Throwable error);
+    }
+}
@@ -0,0 +1,605 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.recyclerview.internal;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.android.cards.R;
+import com.android.cards.internal.Card;
+
+/**
+ * RecyclerView Adapter which loads the cards in pages from a {@link CardPageDataSource}.
+ * </p>
+ * The pages are loaded while the {@link com.android.cards.recyclerview.view.CardRecyclerView} binds
+ * the positions near the edges of the loaded pages.
+ * Only {@link #setMaxPages(int)} pages are kept in memory: the pages far from the
+ * current position are dropped and replaced by placeholders, and they are loaded again when they become visible.
+ * </p>
+ * Usage:
+ * <pre><code>
+ * CardPagedRecyclerViewAdapter<Integer> adapter = new CardPagedRecyclerViewAdapter<Integer>(getActivity(), new MyDataSource());
+ * recyclerView.setAdapter(adapter);
+ * adapter.loadInitial();
+ * </code></pre>
+ * </p>
+ * If the data source reports an error with {@link CardPageDataSource.LoadCallback#onError(Throwable)},
+ * the page isn't requested again while the views are bound: call {@link #retry()}, for example from a retry button,
+ * to request the pages which failed.
+ * </p>
+ * @param <Key> type of the page key
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class CardPagedRecyclerViewAdapter<Key> extends BaseRecyclerViewAdapter {
+
+    /**
+     * View type used by placeholders
+     */
+    public static final int VIEW_TYPE_PLACEHOLDER = Integer.MAX_VALUE;
+
+    /**
+     * Default number of cards in a page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Default number of pages kept in memory
+     */
+    public static final int DEFAULT_MAX_PAGES = 5;
+
+    private static final int LOAD_INITIAL = 0;
+    private static final int LOAD_BEFORE = 1;
+    private static final int LOAD_AFTER = 2;
+
+    /**
+     * Source of the pages
+     */
+    protected CardPageDataSource<Key> mDataSource;
+
+    /**
+     * Loaded pages
+     */
+    protected final ArrayList<Page<Key>> mPages = new ArrayList<Page<Key>>();
+
+    /**
+     * Number of placeholders before the loaded pages
+     */
+    protected int mLeadingPlaceholders = 0;
+
+    /**
+     * Number of placeholders after the loaded pages
+     */
+    protected int mTrailingPlaceholders = 0;
+
+    /**
+     * Number of cards requested for each page
+     */
+    protected int mPageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Max number of pages kept in memory
+     */
+    protected int mMaxPages = DEFAULT_MAX_PAGES;
+
+    /**
+     * Distance from the edges of the loaded pages which starts a new load
+     */
+    protected int mPrefetchDistance = DEFAULT_PAGE_SIZE / 2;
+
+    /**
+     * Layout used by placeholders
+     */
+    protected @LayoutRes int mPlaceholderLayoutId = R.layout.base_withlist_progress;
+
+    private boolean mLoadingBefore = false;
+    private boolean mLoadingAfter = false;
+
+    private boolean mFailedInitial = false;
+    private boolean mFailedBefore = false;
+    private boolean mFailedAfter = false;
+
+    /**
+     * Used to ignore the results requested before a refresh
+     */
+    private int mGeneration = 0;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    /**
+     * Constructor
+     *
+     * @param context    The current context.
+     * @param dataSource The source of the pages
+     */
+    public CardPagedRecyclerViewAdapter(Context context, CardPageDataSource<Key> dataSource) {
+        super(context);
+        mDataSource = dataSource;
+    }
+
+    // -------------------------------------------------------------
+    // Page
+    // -------------------------------------------------------------
+
+    /**
+     * Loaded page
+     */
+    protected static class Page<Key> {
+
+        protected final ArrayList<Card> cards;
+        protected final Key previousKey;
+        protected final Key nextKey;
+
+        protected Page(List<Card> cards, Key previousKey, Key nextKey) {
+            this.cards = cards != null ? new ArrayList<Card>(cards) : new ArrayList<Card>();
+            this.previousKey = previousKey;
+            this.nextKey = nextKey;
+        }
+    }
+
+    /**
+     * Callback which delivers the result on the main thread
+     */
+    private class PageCallback implements CardPageDataSource.LoadCallback<Key> {
+
+        private final int mDirection;
+        private final int mCallbackGeneration;
+
+        private PageCallback(int direction) {
+            mDirection = direction;
+            mCallbackGeneration = mGeneration;
+        }
+
+        @Override
+        public void onResult(final List<Card> cards, final Key previousKey, final Key nextKey) {
+            //Post the result: it can't notify the RecyclerView while it is binding a view
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onPageLoaded(mDirection, mCallbackGeneration, new Page<Key>(cards, previousKey, nextKey));
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onPageError(mDirection, mCallbackGeneration);
+                }
+            });
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Loading
+    // -------------------------------------------------------------
+
+    /**
+     * Removes all cards and loads the first page
+     */
+    public void loadInitial() {
+        int count = getItemCount();
+        reset();
+        if (count > 0)
+            notifyItemRangeRemoved(0, count);
+
+        mLoadingAfter = true;
+        mDataSource.loadInitial(mPageSize, new PageCallback(LOAD_INITIAL));
+    }
+
+    /**
+     * Loads the pages before or after the loaded pages, if the position is near their edges.
+     * It is called when a position is bound.
+     *
+     * @param position adapter position
+     */
+    protected void loadAround(int position) {
+        if (mPages.isEmpty())
+            return;
+
+        int first = mLeadingPlaceholders;
+        int last = first + getLoadedCount() - 1;
+
+        if (!mLoadingBefore && !mFailedBefore && position - first < mPrefetchDistance) {
+            Key key = mPages.get(0).previousKey;
+            if (key != null) {
+                mLoadingBefore = true;
+                mDataSource.loadBefore(key, mPageSize, new PageCallback(LOAD_BEFORE));
+            }
+        }
+
+        if (!mLoadingAfter && !mFailedAfter && last - position < mPrefetchDistance) {
+            Key key = mPages.get(mPages.size() - 1).nextKey;
+            if (key != null) {
+                mLoadingAfter = true;
+                mDataSource.loadAfter(key, mPageSize, new PageCallback(LOAD_AFTER));
+            }
+        }
+    }
+
+    /**
+     * Requests again the pages which failed to load
+     */
+    public void retry() {
+        if (mFailedInitial) {
+            loadInitial();
+            return;
+        }
+
+        if (mFailedBefore) {
+            mFailedBefore = false;
+            Key key = mPages.get(0).previousKey;
+            mLoadingBefore = true;
+            mDataSource.loadBefore(key, mPageSize, new PageCallback(LOAD_BEFORE));
+        }
+
+        if (mFailedAfter) {
+            mFailedAfter = false;
+            Key key = mPages.get(mPages.size() - 1).nextKey;
+            mLoadingAfter = true;
+            mDataSource.loadAfter(key, mPageSize, new PageCallback(LOAD_AFTER));
+        }
+    }
+
+    private void onPageError(int direction, int generation) {
+        if (generation != mGeneration)
+            return;
+
+        switch (direction) {
+            case LOAD_INITIAL:
+                mLoadingAfter = false;
+                mFailedInitial = true;
+                break;
+            case LOAD_AFTER:
+                mLoadingAfter = false;
+                mFailedAfter = true;
+                break;
+            case LOAD_BEFORE:
+                mLoadingBefore = false;
+                mFailedBefore = true;
+                break;
+        }
+    }
+
+    private void onPageLoaded(int direction, int generation, Page<Key> page) {
+        if (generation != mGeneration)
+            return;
+
+        switch (direction) {
+            case LOAD_INITIAL:
+                mLoadingAfter = false;
+                mPages.add(page);
+                if (!page.cards.isEmpty())
+                    notifyItemRangeInserted(0, page.cards.size());
+                break;
+            case LOAD_AFTER:
+                mLoadingAfter = false;
+                appendPage(page);
+                break;
+            case LOAD_BEFORE:
+                mLoadingBefore = false;
+                prependPage(page);
+                break;
+        }
+    }
+
+    private void appendPage(Page<Key> page) {
+        int start = mLeadingPlaceholders + getLoadedCount();
+        int size = page.cards.size();
+
+        //The page replaces the placeholders of a dropped page
+        int replaced = Math.min(size, mTrailingPlaceholders);
+        mTrailingPlaceholders -= replaced;
+        mPages.add(page);
+        if (replaced > 0)
+            notifyItemRangeChanged(start, replaced);
+        if (size > replaced)
+            notifyItemRangeInserted(start + replaced, size - replaced);
+
+        if (page.nextKey == null && mTrailingPlaceholders > 0) {
+            notifyItemRangeRemoved(start + size, mTrailingPlaceholders);
+            mTrailingPlaceholders = 0;
+        }
+
+        //Drop the first pages
+        while (mPages.size() > mMaxPages) {
+            Page<Key> dropped = mPages.remove(0);
+            mLeadingPlaceholders += dropped.cards.size();
+            if (!dropped.cards.isEmpty())
+                notifyItemRangeChanged(mLeadingPlaceholders - dropped.cards.size(), dropped.cards.size());
+        }
+    }
+
+    private void prependPage(Page<Key> page) {
+        int size = page.cards.size();
+
+        //The page replaces the placeholders of a dropped page
+        int replaced = Math.min(size, mLeadingPlaceholders);
+        int inserted = size - replaced;
+        mLeadingPlaceholders -= replaced;
+        mPages.add(0, page);
+        if (inserted > 0)
+            notifyItemRangeInserted(0, inserted);
+        if (replaced > 0)
+            notifyItemRangeChanged(mLeadingPlaceholders + inserted, replaced);
+
+        if (page.previousKey == null && mLeadingPlaceholders > 0) {
+            int removed = mLeadingPlaceholders;
+            mLeadingPlaceholders = 0;
+            notifyItemRangeRemoved(0, removed);
+        }
+
+        //Drop the last pages
+        while (mPages.size() > mMaxPages) {
+            Page<Key> dropped = mPages.remove(mPages.size() - 1);
+            mTrailingPlaceholders += dropped.cards.size();
+            if (!dropped.cards.isEmpty())
+                notifyItemRangeChanged(mLeadingPlaceholders + getLoadedCount(), dropped.cards.size());
+        }
+    }
+
+    private void reset() {
+        mGeneration++;
+        mPages.clear();
+        mLeadingPlaceholders = 0;
+        mTrailingPlaceholders = 0;
+        mLoadingBefore = false;
+        mLoadingAfter = false;
+        mFailedInitial = false;
+        mFailedBefore = false;
+        mFailedAfter = false;
+    }
+
+    /**
+     * Returns the number of loaded cards
+     *
+     * @return
+     */
+    protected int getLoadedCount() {
+        int count = 0;
+        for (Page<Key> page : mPages) {
+            count += page.cards.size();
+        }
+        return count;
+    }
+
+    // -------------------------------------------------------------
+    // ViewHolder
+    // -------------------------------------------------------------
+
+    @Override
+    public CardViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        if (viewType == VIEW_TYPE_PLACEHOLDER) {
+            final View view = LayoutInflater.from(mContext).inflate(mPlaceholderLayoutId, parent, false);
+            return new CardViewHolder(view);
+        }
+        return super.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(CardViewHolder cardViewHolder, int position) {
+        if (getItem(position) != null)
+            super.onBindViewHolder(cardViewHolder, position);
+
+        loadAround(position);
+    }
+
+    // -------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------
+
+    @Override
+    public int getItemCount() {
+        return mLeadingPlaceholders + getLoadedCount() + mTrailingPlaceholders;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        Card card = getItem(position);
+        if (card == null)
+            return VIEW_TYPE_PLACEHOLDER;
+        return card.getType();
+    }
+
+    /**
+     * Returns the card at position, or <code>null</code> if the position is a placeholder
+     *
+     * @param position
+     * @return
+     */
+    @Override
+    public Card getItem(int position) {
+        int offset = position - mLeadingPlaceholders;
+        if (offset < 0)
+            return null;
+        for (Page<Key> page : mPages) {
+            if (offset < page.cards.size())
+                return page.cards.get(offset);
+            offset -= page.cards.size();
+        }
+        return null;
+    }
+
+    /**
+     * Appends the card to the last loaded page
+     *
+     * @param card the object to add.
+     *
+     * @return always true.
+     */
+    @Override
+    public boolean add(@NonNull final Card card) {
+        if (mPages.isEmpty())
+            mPages.add(new Page<Key>(null, null, null));
+        mPages.get(mPages.size() - 1).cards.add(card);
+        notifyItemInserted(mLeadingPlaceholders + getLoadedCount() - 1);
+        return true;
+    }
+
+    /**
+     * Inserts the card at the position. The position has to be inside (or at the end of) a loaded page.
+     *
+     * @param index
+     * @param card
+     */
+    @Override
+    public void add(final int index, @NonNull final Card card) {
+        int offset = index - mLeadingPlaceholders;
+        if (offset >= 0) {
+            for (Page<Key> page : mPages) {
+                if (offset <= page.cards.size()) {
+                    page.cards.add(offset, card);
+                    notifyItemInserted(index);
+                    return;
+                }
+                offset -= page.cards.size();
+            }
+        }
+        throw new IndexOutOfBoundsException("Position " + index + " is not loaded");
+    }
+
+    /**
+     * Check if the loaded pages contain the element
+     *
+     * @param card
+     * @return
+     */
+    @Override
+    public boolean contains(final Card card) {
+        for (Page<Key> page : mPages) {
+            if (page.cards.contains(card))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Clears all pages
+     */
+    @Override
+    public void clear() {
+        reset();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Removes the specified element
+     *
+     * @param card
+     * @return
+     */
+    @Override
+    public boolean remove(@NonNull final Card card) {
+        int position = mLeadingPlaceholders;
+        for (Page<Key> page : mPages) {
+            int index = page.cards.indexOf(card);
+            if (index >= 0) {
+                page.cards.remove(index);
+                notifyItemRemoved(position + index);
+                return true;
+            }
+            position += page.cards.size();
+        }
+        return false;
+    }
+
+    /**
+     * Removes the element at position
+     *
+     * @param position
+     * @return
+     */
+    @NonNull
+    @Override
+    public Card remove(final int position) {
+        int offset = position - mLeadingPlaceholders;
+        if (offset >= 0) {
+            for (Page<Key> page : mPages) {
+                if (offset < page.cards.size()) {
+                    Card result = page.cards.remove(offset);
+                    notifyItemRemoved(position);
+                    return result;
+                }
+                offset -= page.cards.size();
+            }
+        }
+        throw new IndexOutOfBoundsException("Position " + position + " is not loaded");
+    }
+
+    // -------------------------------------------------------------
+    //  Getters and Setters
+    // -------------------------------------------------------------
+
+    /**
+     * Sets the number of cards requested for each page
+     *
+     * @param pageSize
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize > 0) {
+            mPageSize = pageSize;
+            mPrefetchDistance = Math.max(1, pageSize / 2);
+        }
+    }
+
+    /**
+     * Sets the max number of pages kept in memory.
+     * It should be big enough to contain the visible cards.
+     *
+     * @param maxPages
+     */
+    public void setMaxPages(int maxPages) {
+        if (maxPages >= 2)
+            mMaxPages = maxPages;
+    }
+
+    /**
+     * Sets the distance from the edges of the loaded pages which starts a new load
+     *
+     * @param prefetchDistance number of cards
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        if (prefetchDistance > 0)
+            mPrefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * Sets the layout used by placeholders
+     *
+     * @param placeholderLayoutId layout resource id
+     */
+    public void setPlaceholderLayoutId(@LayoutRes int placeholderLayoutId) {
+        mPlaceholderLayoutId = placeholderLayoutId;
+    }
+}
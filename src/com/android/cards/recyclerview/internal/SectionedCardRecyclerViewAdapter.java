@@ -0,0 +1,407 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.recyclerview.internal;
+
+import android.content.Context;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.android.cards.R;
+import com.android.cards.internal.Card;
+import com.android.cards.prototypes.CardSection;
+import com.android.cards.prototypes.CardSectionIndex;
+import com.android.cards.recyclerview.view.CardRecyclerView;
+
+/**
+ * An adapter to build a {@link CardRecyclerView} with sections.
+ * </p>
+ * It wraps any {@link BaseRecyclerViewAdapter}, adding a section view type.
+ * The changes of the wrapped adapter and of the sections are notified with granular notifications.
+ * </p>
+ * Usage:
+ * <pre><code>
+ * SectionedCardRecyclerViewAdapter sectionedAdapter = new SectionedCardRecyclerViewAdapter(getActivity(), cardArrayAdapter);
+ * sectionedAdapter.setCardSections(sections);
+ * recyclerView.setAdapter(sectionedAdapter);
+ *
+ * //Optional sticky sections
+ * recyclerView.addItemDecoration(new StickySectionItemDecoration(sectionedAdapter));
+ * </code></pre>
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class SectionedCardRecyclerViewAdapter extends BaseRecyclerViewAdapter {
+
+    /**
+     * View type used by sections
+     */
+    public static final int VIEW_TYPE_SECTION = Integer.MAX_VALUE - 1;
+
+    /**
+     * First id used by sections. A section id is this value plus the first position of the section,
+     * so the wrapped adapter must not use the ids from {@link Long#MIN_VALUE} to
+     * {@link Long#MIN_VALUE} + {@link Integer#MAX_VALUE}.
+     */
+    public static final long SECTION_ID_BASE = Long.MIN_VALUE;
+
+    /**
+     * Layout used for sections
+     */
+    protected @LayoutRes int mSectionResourceId = R.layout.base_section_layout;
+
+    /**
+     * Adapter with cards.
+     */
+    protected BaseRecyclerViewAdapter mBaseAdapter;
+
+    /**
+     * Index with Card Sections
+     */
+    protected final CardSectionIndex mCardSections = new CardSectionIndex();
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    /**
+     * Constructor
+     *
+     * @param context
+     * @param baseAdapter adapter with cards
+     */
+    public SectionedCardRecyclerViewAdapter(Context context, BaseRecyclerViewAdapter baseAdapter) {
+        this(context, R.layout.base_section_layout, baseAdapter);
+    }
+
+    /**
+     *
+     * @param context             context
+     * @param sectionResourceId   layout used by sections
+     * @param baseAdapter         adapter with cards
+     */
+    public SectionedCardRecyclerViewAdapter(Context context, @LayoutRes int sectionResourceId, BaseRecyclerViewAdapter baseAdapter) {
+        super(context);
+        mSectionResourceId = sectionResourceId;
+        mBaseAdapter = baseAdapter;
+
+        setHasStableIds(mBaseAdapter.hasStableIds());
+        mBaseAdapter.registerAdapterDataObserver(new SectionedDataObserver());
+    }
+
+    // -------------------------------------------------------------
+    // Section
+    // -------------------------------------------------------------
+
+    /**
+     * Sets the Card sections.
+     * Only one section is kept for each first position.
+     *
+     * @param cardSections
+     */
+    public void setCardSections(CardSection[] cardSections) {
+        mCardSections.setCardSections(cardSections);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Adds a {@link CardSection}.
+     * It is ignored if there is already a section with the same first position.
+     *
+     * @param cardSection to be added
+     */
+    public void addCardSection(CardSection cardSection) {
+        if (cardSection != null) {
+            int index = mCardSections.insert(cardSection);
+            if (index >= 0)
+                notifyItemInserted(mCardSections.getSectionedPosition(index));
+        }
+    }
+
+    /**
+     * Removes a {@link CardSection}
+     *
+     * @param cardSection to be removed
+     * @return <code>true</code> if the section was removed
+     */
+    public boolean removeCardSection(CardSection cardSection) {
+        if (cardSection != null) {
+            int index = mCardSections.remove(cardSection);
+            if (index >= 0) {
+                notifyItemRemoved(cardSection.getFirstPosition() + index);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the position is a Section
+     *
+     * @param position
+     * @return
+     */
+    public boolean isSectionHeaderPosition(int position) {
+        return mCardSections.indexOfSectionedPosition(position) >= 0;
+    }
+
+    /**
+     * Returns the sectioned position from the position
+     *
+     * @param position
+     * @return
+     */
+    public int positionToSectionedPosition(int position) {
+        return mCardSections.positionToSectionedPosition(position);
+    }
+
+    /**
+     * Returns the position from the sectioned position
+     *
+     * @param sectionedPosition
+     * @return the position, or {@link RecyclerView#NO_POSITION} if the position is a section
+     */
+    public int sectionedPositionToPosition(int sectionedPosition) {
+        int index = mCardSections.indexOfSectionedPosition(sectionedPosition);
+        if (index >= 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        return sectionedPosition - ~index;
+    }
+
+    /**
+     * Returns the section which contains the sectioned position
+     *
+     * @param sectionedPosition
+     * @return the section, or <code>null</code> if the position is before the first section
+     */
+    public CardSection getCardSectionContaining(int sectionedPosition) {
+        int index = mCardSections.indexOfSectionContaining(sectionedPosition);
+        return index >= 0 ? mCardSections.get(index) : null;
+    }
+
+    /**
+     * Returns the sections
+     *
+     * @return
+     */
+    public CardSectionIndex getCardSections() {
+        return mCardSections;
+    }
+
+    // -------------------------------------------------------------
+    // ViewHolder
+    // -------------------------------------------------------------
+
+    @Override
+    public CardViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        if (viewType == VIEW_TYPE_SECTION) {
+            return new CardViewHolder(createSectionView(parent));
+        }
+        return mBaseAdapter.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(CardViewHolder cardViewHolder, int position) {
+        int index = mCardSections.indexOfSectionedPosition(position);
+        if (index >= 0) {
+            bindSectionView(cardViewHolder.itemView, mCardSections.get(index));
+        } else {
+            mBaseAdapter.onBindViewHolder(cardViewHolder, position - ~index);
+        }
+    }
+
+    /**
+     * Inflates the view used by sections
+     *
+     * @param parent parent
+     * @return the section view
+     */
+    public View createSectionView(ViewGroup parent) {
+        return LayoutInflater.from(mContext).inflate(mSectionResourceId, parent, false);
+    }
+
+    /**
+     * Sets the ui elements of the section view.
+     * Override this method to set your ui elements.
+     *
+     * @param view        section view
+     * @param cardSection section
+     */
+    public void bindSectionView(View view, CardSection cardSection) {
+        TextView textView = (TextView) view.findViewById(R.id.card_section_simple_title);
+        if (textView != null)
+            textView.setText(cardSection.getTitle());
+    }
+
+    // -------------------------------------------------------------
+    // Adapter's methods
+    // -------------------------------------------------------------
+
+    @Override
+    public int getItemCount() {
+        return mBaseAdapter.getItemCount() + mCardSections.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int index = mCardSections.indexOfSectionedPosition(position);
+        return index >= 0
+                ? VIEW_TYPE_SECTION
+                : mBaseAdapter.getItemViewType(position - ~index);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        int index = mCardSections.indexOfSectionedPosition(position);
+        return index >= 0
+                ? SECTION_ID_BASE + mCardSections.get(index).getFirstPosition()
+                : mBaseAdapter.getItemId(position - ~index);
+    }
+
+    /**
+     * Returns the card at position, or <code>null</code> if the position is a section
+     *
+     * @param position
+     * @return
+     */
+    @Override
+    public Card getItem(int position) {
+        int index = mCardSections.indexOfSectionedPosition(position);
+        return index >= 0 ? null : mBaseAdapter.getItem(position - ~index);
+    }
+
+    @Override
+    public boolean add(@NonNull Card card) {
+        return mBaseAdapter.add(card);
+    }
+
+    @Override
+    public void add(int index, @NonNull Card card) {
+        mBaseAdapter.add(index, card);
+    }
+
+    @Override
+    public boolean remove(@NonNull Card card) {
+        return mBaseAdapter.remove(card);
+    }
+
+    @Override
+    public Card remove(int position) {
+        return mBaseAdapter.remove(position);
+    }
+
+    @Override
+    public boolean contains(Card card) {
+        return mBaseAdapter.contains(card);
+    }
+
+    @Override
+    public void clear() {
+        mBaseAdapter.clear();
+    }
+
+    // -------------------------------------------------------------
+    // Forward the settings to the wrapped adapter
+    // -------------------------------------------------------------
+
+    @Override
+    public void setRowLayoutId(@LayoutRes int rowLayoutId) {
+        super.setRowLayoutId(rowLayoutId);
+        mBaseAdapter.setRowLayoutId(rowLayoutId);
+    }
+
+    @Override
+    public void setRowLayoutIds(@LayoutRes int[] rowLayoutIds) {
+        super.setRowLayoutIds(rowLayoutIds);
+        mBaseAdapter.setRowLayoutIds(rowLayoutIds);
+    }
+
+    @Override
+    public void setCardRecyclerView(CardRecyclerView cardRecyclerView) {
+        super.setCardRecyclerView(cardRecyclerView);
+        mBaseAdapter.setCardRecyclerView(cardRecyclerView);
+    }
+
+    // -------------------------------------------------------------
+    // Observer
+    // -------------------------------------------------------------
+
+    /**
+     * Maps the notifications of the wrapped adapter to sectioned positions.
+     * The sections are anchored to the positions of the wrapped adapter, so a structural change
+     * before a section moves the cards across it: in this case the whole dataset is notified.
+     */
+    private class SectionedDataObserver extends RecyclerView.AdapterDataObserver {
+
+        @Override
+        public void onChanged() {
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            int first = mCardSections.countSectionsBefore(positionStart);
+            int last = mCardSections.countSectionsBefore(positionStart + itemCount - 1);
+            if (first == last) {
+                notifyItemRangeChanged(positionStart + first, itemCount);
+            } else {
+                for (int i = positionStart; i < positionStart + itemCount; i++) {
+                    notifyItemChanged(mCardSections.positionToSectionedPosition(i));
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (isAfterAllSections(positionStart)) {
+                notifyItemRangeInserted(mCardSections.positionToSectionedPosition(positionStart), itemCount);
+            } else {
+                notifyDataSetChanged();
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (isAfterAllSections(positionStart)) {
+                notifyItemRangeRemoved(mCardSections.positionToSectionedPosition(positionStart), itemCount);
+            } else {
+                notifyDataSetChanged();
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (itemCount == 1 && mCardSections.countSectionsBefore(fromPosition) == mCardSections.countSectionsBefore(toPosition)) {
+                notifyItemMoved(mCardSections.positionToSectionedPosition(fromPosition),
+                        mCardSections.positionToSectionedPosition(toPosition));
+            } else {
+                notifyDataSetChanged();
+            }
+        }
+
+        private boolean isAfterAllSections(int position) {
+            return mCardSections.countSectionsBefore(position) == mCardSections.size();
+        }
+    }
+}
@@ -27,12 +27,13 @@ import android.support.annotation.LayoutRes;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.view.View;
-import android.view.ViewGroup;
 
 import com.android.cards.R;
 import com.android.cards.internal.Card;
 import com.android.cards.recyclerview.internal.BaseRecyclerViewAdapter;
 import com.android.cards.view.base.CardViewWrapper;
+import com.android.cards.view.helper.CardExpandAnimator;
+import com.android.cards.view.helper.CardExpandHeightCache;
 
 
 /**
@@ -54,13 +55,19 @@ import com.android.cards.view.base.CardViewWrapper;
  *
  * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
  */
-public class CardRecyclerView extends RecyclerView implements CardViewWrapper.OnExpandListAnimatorListener {
+public class CardRecyclerView extends RecyclerView implements CardViewWrapper.OnExpandListAnimatorListener,
+        CardExpandHeightCache.Provider {
 
     /**
      *  Card Adapter
      */
     protected BaseRecyclerViewAdapter mAdapter;
 
+    /**
+     * Measured heights of the expand layouts of the cards in this list
+     */
+    protected final CardExpandHeightCache mExpandHeightCache = new CardExpandHeightCache();
+
     //--------------------------------------------------------------------------
     // Custom Attrs
     //--------------------------------------------------------------------------
@@ -172,6 +179,9 @@ public class CardRecyclerView extends RecyclerView implements CardViewWrapper.On
                 if (viewHolder instanceof BaseRecyclerViewAdapter.CardViewHolder){
                     ((BaseRecyclerViewAdapter.CardViewHolder)viewHolder).recycled = true;
                 }
+                //Dismissed rows are recycled with the swipe presentation
+                viewHolder.itemView.setTranslationX(0);
+                viewHolder.itemView.setAlpha(1);
             }
         });
     }
@@ -180,14 +190,24 @@ public class CardRecyclerView extends RecyclerView implements CardViewWrapper.On
     // Expand and Collapse animator
     //--------------------------------------------------------------------------
 
+    /**
+     * Returns the cache of the expand heights of the cards in this list
+     *
+     * @return
+     */
+    @Override
+    public CardExpandHeightCache getExpandHeightCache() {
+        return mExpandHeightCache;
+    }
+
     @Override
     public void onExpandStart(CardViewWrapper viewCard,View expandingLayout) {
-           ExpandCollapseHelper.animateExpanding(expandingLayout,viewCard,this);
+           ExpandCollapseHelper.animateExpanding(expandingLayout,viewCard,this,mExpandHeightCache);
     }
 
     @Override
     public void onCollapseStart(CardViewWrapper viewCard,View expandingLayout) {
-          ExpandCollapseHelper.animateCollapsing(expandingLayout,viewCard,this);
+          ExpandCollapseHelper.animateCollapsing(expandingLayout,viewCard,this,mExpandHeightCache);
     }
 
     /**
@@ -201,11 +221,16 @@ public class CardRecyclerView extends RecyclerView implements CardViewWrapper.On
          * @param expandingLayout  layout to expand
          * @param cardView         cardView
          * @param recyclerView     recyclerView
+         * @param heightCache      cache of the expand heights
          */
-        public static void animateCollapsing(final View expandingLayout, final CardViewWrapper cardView,final RecyclerView recyclerView) {
-            int origHeight = expandingLayout.getHeight();
+        public static void animateCollapsing(final View expandingLayout, final CardViewWrapper cardView,final RecyclerView recyclerView,
+                                             final CardExpandHeightCache heightCache) {
+            View row = findDirectChild(expandingLayout, recyclerView);
+
+            //The expand layout is laid out: its height is free
+            heightCache.updateExpandHeight(cardView.getCard(), expandingLayout);
 
-            ValueAnimator animator = createHeightAnimator(expandingLayout, origHeight, 0);
+            ValueAnimator animator = CardExpandAnimator.createCollapseAnimator(row, expandingLayout);
             animator.addListener(new AnimatorListenerAdapter() {
 
                 @Override
@@ -230,30 +255,30 @@ public class CardRecyclerView extends RecyclerView implements CardViewWrapper.On
          * @param expandingLayout  layout to collapse
          * @param cardView         cardView
          * @param recyclerView     recyclerView
+         * @param heightCache      cache of the expand heights
          */
-        public static void animateExpanding(final View expandingLayout, final CardViewWrapper cardView,final RecyclerView recyclerView) {
+        public static void animateExpanding(final View expandingLayout, final CardViewWrapper cardView,final RecyclerView recyclerView,
+                                             final CardExpandHeightCache heightCache) {
             /* Update the layout so the extra content becomes visible.*/
             expandingLayout.setVisibility(View.VISIBLE);
 
-            View parent = (View) expandingLayout.getParent();
-            final int widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getMeasuredWidth() - parent.getPaddingLeft() - parent.getPaddingRight(), View.MeasureSpec.AT_MOST);
-            final int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
-            expandingLayout.measure(widthSpec, heightSpec);
+            //The height is measured only if the card isn't in cache
+            final int expandHeight = heightCache.measureExpandHeight(cardView.getCard(), expandingLayout);
 
+            final View row = findDirectChild(expandingLayout, recyclerView);
 
-            ValueAnimator animator = createHeightAnimator(expandingLayout, 0, expandingLayout.getMeasuredHeight());
+            ValueAnimator animator = CardExpandAnimator.createExpandAnimator(row, expandingLayout, expandHeight);
             animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
                 final int listViewHeight = recyclerView.getHeight();
                 final int listViewBottomPadding = recyclerView.getPaddingBottom();
 
-                final View v = findDirectChild(expandingLayout, recyclerView);
-
                 @Override
                 public void onAnimationUpdate(final ValueAnimator valueAnimator) {
                     if (recyclerView.getLayoutManager().canScrollVertically()) {
-                        final int bottom = v.getBottom();
+                        //The row is clipped to the revealed part of the expand layout
+                        final int bottom = row.getBottom() - expandingLayout.getHeight() + (Integer) valueAnimator.getAnimatedValue();
                         if (bottom > listViewHeight) {
-                            final int top = v.getTop();
+                            final int top = row.getTop();
                             if (top > 0) {
                                 //recyclerView.scrollBy(0,Math.min(bottom - listViewHeight + listViewBottomPadding, top));
                                 recyclerView.smoothScrollBy(0,Math.min(bottom - listViewHeight + listViewBottomPadding + 4, top));
@@ -280,6 +305,42 @@ public class CardRecyclerView extends RecyclerView implements CardViewWrapper.On
             animator.start();
         }
 
+        /**
+         * Collapses the card, using the height cache of the list
+         *
+         * @deprecated use the method with the {@link CardExpandHeightCache} argument
+         */
+        @Deprecated
+        public static void animateCollapsing(final View expandingLayout, final CardViewWrapper cardView, final RecyclerView recyclerView) {
+            animateCollapsing(expandingLayout, cardView, recyclerView, getExpandHeightCache(recyclerView));
+        }
+
+        /**
+         * Expands the card, using the height cache of the list
+         *
+         * @deprecated use the method with the {@link CardExpandHeightCache} argument
+         */
+        @Deprecated
+        public static void animateExpanding(final View expandingLayout, final CardViewWrapper cardView, final RecyclerView recyclerView) {
+            animateExpanding(expandingLayout, cardView, recyclerView, getExpandHeightCache(recyclerView));
+        }
+
+        private static CardExpandHeightCache getExpandHeightCache(RecyclerView recyclerView) {
+            if (recyclerView instanceof CardExpandHeightCache.Provider)
+                return ((CardExpandHeightCache.Provider) recyclerView).getExpandHeightCache();
+            return new CardExpandHeightCache(1);
+        }
+
+        /**
+         * Creates an animator which changes the height of the view on each frame
+         *
+         * @deprecated use {@link CardExpandAnimator#createHeightAnimator(View, int, int)}
+         */
+        @Deprecated
+        public static ValueAnimator createHeightAnimator(final View view, final int start, final int end) {
+            return CardExpandAnimator.createHeightAnimator(view, start, end);
+        }
+
         private static View findDirectChild(final View view, final RecyclerView recyclerView) {
             View result = view;
             View parent = (View) result.getParent();
@@ -290,22 +351,6 @@ public class CardRecyclerView extends RecyclerView implements CardViewWrapper.On
             return result;
         }
 
-        public static ValueAnimator createHeightAnimator(final View view, final int start, final int end) {
-            ValueAnimator animator = ValueAnimator.ofInt(start, end);
-            animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-
-                @Override
-                public void onAnimationUpdate(final ValueAnimator valueAnimator) {
-                    int value = (Integer) valueAnimator.getAnimatedValue();
-
-                    ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
-                    layoutParams.height = value;
-                    view.setLayoutParams(layoutParams);
-                }
-            });
-            return animator;
-        }
-
         /**
          * This method notifies the adapter after setting expand value inside cards
          *
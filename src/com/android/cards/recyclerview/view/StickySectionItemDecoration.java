@@ -0,0 +1,208 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.recyclerview.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.support.v7.widget.RecyclerView;
+import android.util.LruCache;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.android.cards.prototypes.CardSection;
+import com.android.cards.recyclerview.internal.SectionedCardRecyclerViewAdapter;
+
+/**
+ * An {@link RecyclerView.ItemDecoration} which draws the section of the first visible card
+ * on top of the {@link CardRecyclerView}.
+ * </p>
+ * The section view is inflated, measured and drawn once in a bitmap: each frame only draws the cached bitmap.
+ * When the next section reaches the top, the sticky section is pushed up.
+ * </p>
+ * Usage:
+ * <pre><code>
+ * recyclerView.addItemDecoration(new StickySectionItemDecoration(sectionedAdapter));
+ * </code></pre>
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class StickySectionItemDecoration extends RecyclerView.ItemDecoration {
+
+    /**
+     * Default max size (in bytes) of the cached sections
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024 * 1024;
+
+    /**
+     * Sectioned adapter
+     */
+    protected SectionedCardRecyclerViewAdapter mAdapter;
+
+    /**
+     * Rendered sections
+     */
+    protected LruCache<CardSection, Bitmap> mSectionCache;
+
+    /**
+     * Width used to render the sections
+     */
+    protected int mRenderedWidth = -1;
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    public StickySectionItemDecoration(SectionedCardRecyclerViewAdapter adapter) {
+        this(adapter, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param adapter   sectioned adapter
+     * @param cacheSize max size (in bytes) of the cached sections
+     */
+    public StickySectionItemDecoration(SectionedCardRecyclerViewAdapter adapter, int cacheSize) {
+        mAdapter = adapter;
+        mSectionCache = new LruCache<CardSection, Bitmap>(cacheSize) {
+            @Override
+            protected int sizeOf(CardSection key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                invalidateSections();
+            }
+        });
+    }
+
+    // -------------------------------------------------------------
+    // Draw
+    // -------------------------------------------------------------
+
+    @Override
+    public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        if (parent.getChildCount() == 0 || parent.getLayoutManager() == null)
+            return;
+
+        View firstChild = parent.getChildAt(0);
+        int firstPosition = parent.getLayoutManager().getPosition(firstChild);
+        if (firstPosition == RecyclerView.NO_POSITION)
+            return;
+
+        CardSection cardSection = mAdapter.getCardSectionContaining(firstPosition);
+        if (cardSection == null)
+            return;
+
+        Bitmap section = getSectionBitmap(parent, cardSection);
+        if (section == null)
+            return;
+
+        //The section sticks below the top padding, where the cards are clipped
+        int stickyTop = isClipToPadding(parent) ? parent.getPaddingTop() : 0;
+
+        //Push up the sticky section when the next section reaches it
+        int top = stickyTop;
+        for (int i = 1; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            if (child.getTop() >= stickyTop + section.getHeight())
+                break;
+            int position = parent.getLayoutManager().getPosition(child);
+            if (position != RecyclerView.NO_POSITION && mAdapter.isSectionHeaderPosition(position)) {
+                top = child.getTop() - section.getHeight();
+                break;
+            }
+        }
+
+        c.drawBitmap(section, parent.getPaddingLeft(), top, null);
+    }
+
+    /**
+     * Returns <code>true</code> if the recyclerView clips its children to the padding.
+     * The flag can be read only from API 21: on older devices the default value is used.
+     */
+    private static boolean isClipToPadding(RecyclerView parent) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
+            return parent.getClipToPadding();
+        return true;
+    }
+
+    /**
+     * Returns the cached bitmap of the section, rendering it if it is necessary
+     *
+     * @param parent      recyclerView
+     * @param cardSection section
+     * @return the bitmap, or <code>null</code> if the section can't be rendered
+     */
+    protected Bitmap getSectionBitmap(RecyclerView parent, CardSection cardSection) {
+        int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (width <= 0)
+            return null;
+
+        if (width != mRenderedWidth) {
+            mSectionCache.evictAll();
+            mRenderedWidth = width;
+        }
+
+        Bitmap bitmap = mSectionCache.get(cardSection);
+        if (bitmap == null) {
+            bitmap = renderSection(parent, cardSection, width);
+            if (bitmap != null)
+                mSectionCache.put(cardSection, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Inflates, measures and draws the section view in a bitmap
+     *
+     * @param parent      recyclerView
+     * @param cardSection section
+     * @param width       width of the section
+     * @return the bitmap, or <code>null</code> if the section has no height
+     */
+    protected Bitmap renderSection(RecyclerView parent, CardSection cardSection, int width) {
+        View view = mAdapter.createSectionView(parent);
+        mAdapter.bindSectionView(view, cardSection);
+
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        int heightSpec = (params != null && params.height > 0)
+                ? View.MeasureSpec.makeMeasureSpec(params.height, View.MeasureSpec.EXACTLY)
+                : View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY), heightSpec);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+
+        if (view.getMeasuredHeight() <= 0)
+            return null;
+
+        Bitmap bitmap = Bitmap.createBitmap(view.getMeasuredWidth(), view.getMeasuredHeight(), Bitmap.Config.ARGB_8888);
+        view.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    /**
+     * Clears the rendered sections.
+     * Use this method if the content of the sections is changed.
+     */
+    public void invalidateSections() {
+        mSectionCache.evictAll();
+    }
+}
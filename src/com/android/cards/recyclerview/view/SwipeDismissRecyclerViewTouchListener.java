@@ -0,0 +1,367 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.recyclerview.view;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import com.android.cards.R;
+import com.android.cards.internal.Card;
+import com.android.cards.recyclerview.internal.BaseRecyclerViewAdapter;
+import com.android.cards.view.base.CardViewWrapper;
+import com.android.cards.view.helper.SwipeLayerHelper;
+import com.android.cards.view.listener.dismiss.Dismissable;
+
+/**
+ * A {@link RecyclerView.OnItemTouchListener} that makes the rows of a {@link RecyclerView} dismissable.
+ * </p>
+ * It works like the SwipeDismissListViewTouchListener: the row follows the finger and it is dismissed
+ * when it is swiped over a fraction of its width, or flung.
+ * The gap is closed by the item animator of the RecyclerView, when the callback removes
+ * the item with {@link RecyclerView.Adapter#notifyItemRemoved(int)}.
+ * </p>
+ * Swipes don't start while the RecyclerView is scrolled by the user.
+ * </p>
+ * Usage:
+ * <pre><code>
+ * recyclerView.addOnItemTouchListener(new SwipeDismissRecyclerViewTouchListener(recyclerView,
+ *         new SwipeDismissRecyclerViewTouchListener.DismissCallbacks() {
+ *             public boolean canDismiss(int position, Card card) {
+ *                 return card.isSwipeable();
+ *             }
+ *
+ *             public void onDismiss(RecyclerView recyclerView, Card card) {
+ *                 adapter.remove(card);
+ *             }
+ *         }));
+ * </code></pre>
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class SwipeDismissRecyclerViewTouchListener implements RecyclerView.OnItemTouchListener {
+
+    // Cached ViewConfiguration and system-wide constant values
+    private int mSlop;
+    private int mMinFlingVelocity;
+    private int mMaxFlingVelocity;
+    private long mAnimationTime;
+
+    // Fixed properties
+    private RecyclerView mRecyclerView;
+    private DismissCallbacks mCallbacks;
+    private int swipeDistanceDivisor = 2;
+
+    // Transient properties
+    private float mDownX;
+    private float mDownY;
+    private boolean mSwiping;
+    private int mSwipingSlop;
+    private VelocityTracker mVelocityTracker;
+    private View mDownView;
+    private Card mDownCard;
+    private boolean mPaused;
+
+    /**
+     * Dismissable Manager
+     */
+    protected Dismissable mDismissable;
+
+    /**
+     * Hardware layer used while a row is swiped
+     */
+    private final SwipeLayerHelper mLayerHelper = new SwipeLayerHelper();
+
+    /**
+     * The callback interface used by {@link SwipeDismissRecyclerViewTouchListener} to inform its client
+     * about a successful dismissal of a row.
+     */
+    public interface DismissCallbacks {
+        /**
+         * Called to determine whether the given position can be dismissed.
+         */
+        boolean canDismiss(int position, Card card);
+
+        /**
+         * Called when the row is swiped away.
+         * The callback has to remove the card, notifying the adapter with
+         * {@link RecyclerView.Adapter#notifyItemRemoved(int)}.
+         * </p>
+         * The card is the one bound to the swiped row: the adapter of the RecyclerView can wrap
+         * the adapter which contains the card, so its position isn't passed.
+         *
+         * @param recyclerView The originating {@link RecyclerView}.
+         * @param card         The card to dismiss.
+         */
+        void onDismiss(RecyclerView recyclerView, Card card);
+    }
+
+    /**
+     * Constructs a new swipe-to-dismiss touch listener for the given RecyclerView.
+     *
+     * @param recyclerView The RecyclerView whose rows should be dismissable.
+     * @param callbacks    The callback to trigger when a row is dismissed.
+     */
+    public SwipeDismissRecyclerViewTouchListener(RecyclerView recyclerView, DismissCallbacks callbacks) {
+        ViewConfiguration vc = ViewConfiguration.get(recyclerView.getContext());
+        mSlop = vc.getScaledTouchSlop();
+        mMinFlingVelocity = vc.getScaledMinimumFlingVelocity() * 16;
+        mMaxFlingVelocity = vc.getScaledMaximumFlingVelocity();
+        mAnimationTime = recyclerView.getContext().getResources().getInteger(
+                android.R.integer.config_shortAnimTime);
+        mRecyclerView = recyclerView;
+        mCallbacks = callbacks;
+        swipeDistanceDivisor = recyclerView.getContext().getResources().getInteger(R.integer.list_card_swipe_distance_divisor);
+    }
+
+    /**
+     * Enables or disables (pauses or resumes) watching for swipe-to-dismiss gestures.
+     *
+     * @param enabled Whether or not to watch for gestures.
+     */
+    public void setEnabled(boolean enabled) {
+        mPaused = !enabled;
+    }
+
+    /**
+     * Sets if the swiped rows are drawn in a hardware layer.
+     * Cards can disable it with {@link Card#setSwipeHardwareLayerEnabled(boolean)}.
+     *
+     * @param enabled
+     */
+    public void setHardwareLayerEnabled(boolean enabled) {
+        mLayerHelper.setEnabled(enabled);
+    }
+
+    // -------------------------------------------------------------
+    // Touch
+    // -------------------------------------------------------------
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView recyclerView, MotionEvent motionEvent) {
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                reset();
+                if (mPaused || recyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE)
+                    return false;
+
+                View view = recyclerView.findChildViewUnder(motionEvent.getX(), motionEvent.getY());
+                Card card = getCard(view);
+                if (card != null && mCallbacks.canDismiss(getPosition(view), card)) {
+                    mDownView = view;
+                    mDownCard = card;
+                    mDownX = motionEvent.getRawX();
+                    mDownY = motionEvent.getRawY();
+                    mVelocityTracker = VelocityTracker.obtain();
+                    mVelocityTracker.addMovement(motionEvent);
+                }
+                return false;
+            }
+
+            case MotionEvent.ACTION_MOVE: {
+                if (mVelocityTracker == null || mPaused)
+                    return false;
+
+                mVelocityTracker.addMovement(motionEvent);
+                float deltaX = motionEvent.getRawX() - mDownX;
+                float deltaY = motionEvent.getRawY() - mDownY;
+                if (Math.abs(deltaX) > mSlop && Math.abs(deltaY) < Math.abs(deltaX) / 2 && isSwipeMovementAllowed(deltaX)) {
+                    mSwiping = true;
+                    mSwipingSlop = (deltaX > 0 ? mSlop : -mSlop);
+                    recyclerView.requestDisallowInterceptTouchEvent(true);
+                    mLayerHelper.promote(mDownView, mDownCard);
+
+                    // Cancel the row's touch (un-highlighting the item)
+                    MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
+                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL);
+                    mDownView.dispatchTouchEvent(cancelEvent);
+                    cancelEvent.recycle();
+                    return true;
+                }
+                return false;
+            }
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                reset();
+                return false;
+        }
+        return false;
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView recyclerView, MotionEvent motionEvent) {
+        if (!mSwiping || mVelocityTracker == null)
+            return;
+
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE: {
+                mVelocityTracker.addMovement(motionEvent);
+                float deltaX = motionEvent.getRawX() - mDownX;
+                int width = Math.max(mDownView.getWidth(), 1);
+                mDownView.setTranslationX(deltaX - mSwipingSlop);
+                mDownView.setAlpha(Math.max(0f, Math.min(1f,
+                        1f - 2f * Math.abs(deltaX) / width)));
+                break;
+            }
+
+            case MotionEvent.ACTION_UP: {
+                float deltaX = motionEvent.getRawX() - mDownX;
+                mVelocityTracker.addMovement(motionEvent);
+                mVelocityTracker.computeCurrentVelocity(1000);
+                float velocityX = mVelocityTracker.getXVelocity();
+                float absVelocityX = Math.abs(velocityX);
+                float absVelocityY = Math.abs(mVelocityTracker.getYVelocity());
+                boolean dismiss = false;
+                boolean dismissRight = false;
+                if (Math.abs(deltaX) > mDownView.getWidth() / swipeDistanceDivisor) {
+                    dismiss = true;
+                    dismissRight = deltaX > 0;
+                } else if (mMinFlingVelocity <= absVelocityX && absVelocityX <= mMaxFlingVelocity
+                        && absVelocityY < absVelocityX) {
+                    // dismiss only if flinging in the same direction as dragging
+                    dismiss = (velocityX < 0) == (deltaX < 0);
+                    dismissRight = velocityX > 0;
+                }
+
+                if (dismiss)
+                    dismiss(mDownView, mDownCard, dismissRight);
+                else
+                    cancel(mDownView);
+                reset();
+                break;
+            }
+
+            case MotionEvent.ACTION_CANCEL: {
+                cancel(mDownView);
+                reset();
+                break;
+            }
+        }
+    }
+
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    // -------------------------------------------------------------
+    // Dismiss
+    // -------------------------------------------------------------
+
+    /**
+     * Flies out the row and dismisses the card touched in ACTION_DOWN,
+     * even if the row is rebound to another card during the animation
+     */
+    private void dismiss(final View view, final Card card, boolean dismissRight) {
+        view.animate()
+                .translationX(dismissRight ? view.getWidth() : -view.getWidth())
+                .alpha(0)
+                .setDuration(mAnimationTime)
+                .setListener(new AnimatorListenerAdapter() {
+                    @Override
+                    public void onAnimationEnd(Animator animation) {
+                        mLayerHelper.restore(view);
+
+                        //The row can be rebound to another card during the animation
+                        boolean rebound = getCard(view) != card;
+
+                        mCallbacks.onDismiss(mRecyclerView, card);
+
+                        //The row stays transparent while the item animator removes it.
+                        //The alpha is restored when the row is recycled.
+                        view.setTranslationX(0);
+                        if (rebound)
+                            view.setAlpha(1);
+                    }
+                });
+    }
+
+    private void cancel(View view) {
+        view.animate()
+                .translationX(0)
+                .alpha(1)
+                .setDuration(mAnimationTime)
+                .setListener(mLayerHelper.restoreOnEnd(view));
+    }
+
+    private void reset() {
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+        mDownX = 0;
+        mDownY = 0;
+        mDownView = null;
+        mDownCard = null;
+        mSwiping = false;
+    }
+
+    // -------------------------------------------------------------
+    // Utils
+    // -------------------------------------------------------------
+
+    private int getPosition(View view) {
+        if (view == null || view.getParent() != mRecyclerView)
+            return RecyclerView.NO_POSITION;
+        return mRecyclerView.getChildPosition(view);
+    }
+
+    /**
+     * Returns the card bound to the row, or <code>null</code> for section headers and detached rows
+     */
+    private Card getCard(View view) {
+        if (view == null || view.getParent() != mRecyclerView)
+            return null;
+
+        RecyclerView.ViewHolder holder = mRecyclerView.getChildViewHolder(view);
+        if (holder instanceof BaseRecyclerViewAdapter.CardViewHolder) {
+            CardViewWrapper cardView = ((BaseRecyclerViewAdapter.CardViewHolder) holder).mCardView;
+            if (cardView != null)
+                return cardView.getCard();
+        }
+        return null;
+    }
+
+    private boolean isSwipeMovementAllowed(float deltaX) {
+        if (mDismissable == null)
+            return Math.abs(deltaX) > 0;
+
+        switch (mDismissable.getSwipeDirectionAllowed()) {
+            case BOTH:
+                return Math.abs(deltaX) > 0;
+            case RIGHT:
+                return deltaX > 0;
+            case LEFT:
+                return deltaX < 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Sets a custom DismissableManager
+     * @param dismissable
+     */
+    public void setDismissable(Dismissable dismissable) {
+        mDismissable = dismissable;
+    }
+}
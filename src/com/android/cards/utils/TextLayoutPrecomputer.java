@@ -0,0 +1,377 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.utils;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Process;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.LruCache;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.TextView;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.android.cards.R;
+import com.android.cards.internal.Card;
+
+/**
+ * Precomputes the text layouts of the card titles in a background thread.
+ * </p>
+ * The adapters call {@link #onCardBound(View, int, CardSource)} after each bind: it learns the paint and the width
+ * of the title views, and it prepares the next {@link #getPrefetchCount()} cards in the scroll direction.
+ * Each title is laid out with a {@link StaticLayout} in a background thread: the text shaping fills the
+ * text layout cache shared by the framework, so the measure of the TextView in the main thread is faster.
+ * The layouts themselves are thrown away: only the texts already prepared are remembered, keyed by text,
+ * width and style, so each of them is shaped once.
+ * </p>
+ * By default all the precomputers share a single low priority thread, so they never delay the
+ * {@link android.os.AsyncTask}s of the application.
+ * </p>
+ * Usage:
+ * <pre><code>
+ * mCardArrayAdapter.setTextLayoutPrecomputer(new TextLayoutPrecomputer());
+ * </code></pre>
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class TextLayoutPrecomputer {
+
+    /**
+     * Default number of remembered texts
+     */
+    public static final int DEFAULT_CACHE_SIZE = 100;
+
+    /**
+     * Default number of cards prepared after the bound card, in the scroll direction
+     */
+    public static final int DEFAULT_PREFETCH_COUNT = 5;
+
+    /**
+     * Title of the card, in the view with id card_main_inner_simple_title
+     */
+    public static final int TEXT_CARD_TITLE = 0;
+
+    /**
+     * Title of the header, in the view with id card_header_inner_simple_title
+     */
+    public static final int TEXT_HEADER_TITLE = 1;
+
+    /**
+     * Texts already prepared
+     */
+    protected final LruCache<LayoutKey, Boolean> mPreparedTexts;
+
+    /**
+     * Style of each text, learnt from the bound views. It is read in the main thread only.
+     */
+    private final SparseArray<TextStyle> mTextStyles = new SparseArray<TextStyle>();
+
+    private int mPrefetchCount = DEFAULT_PREFETCH_COUNT;
+
+    /**
+     * Last bound position, used to find the scroll direction
+     */
+    private int mLastBoundPosition = -1;
+
+    private Executor mExecutor;
+
+    /**
+     * Default executor, shared by all the precomputers
+     */
+    private static Executor sDefaultExecutor;
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    public TextLayoutPrecomputer() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize number of remembered texts
+     */
+    public TextLayoutPrecomputer(int cacheSize) {
+        mPreparedTexts = new LruCache<LayoutKey, Boolean>(cacheSize);
+        mExecutor = getDefaultExecutor();
+    }
+
+    /**
+     * Returns the default executor: a single thread with background priority
+     *
+     * @return
+     */
+    private static synchronized Executor getDefaultExecutor() {
+        if (sDefaultExecutor == null) {
+            sDefaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "TextLayoutPrecomputer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sDefaultExecutor;
+    }
+
+    /**
+     * Cards of an adapter
+     */
+    public interface CardSource {
+
+        /**
+         * Returns the number of cards
+         *
+         * @return
+         */
+        int getCardCount();
+
+        /**
+         * Returns the card at the position
+         *
+         * @param position adapter position
+         * @return
+         */
+        Card getCard(int position);
+    }
+
+    // -------------------------------------------------------------
+    // Bind
+    // -------------------------------------------------------------
+
+    /**
+     * Learns the title styles from the bound view and precomputes the titles of the next cards
+     * in the scroll direction: after the position while scrolling down, before it while scrolling up.
+     *
+     * @param cardView the bound card view
+     * @param position bound position
+     * @param source   cards of the adapter
+     */
+    public void onCardBound(View cardView, int position, CardSource source) {
+        onCardBound(cardView);
+
+        int step = position >= mLastBoundPosition ? 1 : -1;
+        mLastBoundPosition = position;
+
+        int count = source.getCardCount();
+        for (int i = 1; i <= mPrefetchCount; i++) {
+            int next = position + step * i;
+            if (next < 0 || next >= count)
+                break;
+            prepare(source.getCard(next));
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Styles
+    // -------------------------------------------------------------
+
+    /**
+     * Learns the paint and the width of the titles from a bound card view
+     *
+     * @param cardView the bound card view
+     */
+    public void onCardBound(View cardView) {
+        if (cardView == null)
+            return;
+        updateTextStyle(TEXT_CARD_TITLE, (TextView) cardView.findViewById(R.id.card_main_inner_simple_title));
+        updateTextStyle(TEXT_HEADER_TITLE, (TextView) cardView.findViewById(R.id.card_header_inner_simple_title));
+    }
+
+    /**
+     * Learns the paint and the width of a text from its TextView.
+     * The TextView has to be laid out.
+     *
+     * @param textType  type of text, for example {@link #TEXT_CARD_TITLE}
+     * @param textView  the TextView
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    public void updateTextStyle(int textType, TextView textView) {
+        if (textView == null)
+            return;
+
+        int width = textView.getWidth() - textView.getTotalPaddingLeft() - textView.getTotalPaddingRight();
+        if (width <= 0)
+            return;
+
+        TextStyle style = mTextStyles.get(textType);
+        TextPaint paint = textView.getPaint();
+        if (style == null || style.width != width || style.paint.getTextSize() != paint.getTextSize()
+                || style.paint.getTypeface() != paint.getTypeface() || style.paint.getColor() != paint.getColor()) {
+            //The paint is copied: the background thread never uses the paint of the view
+            float spacingMult = 1f;
+            float spacingAdd = 0f;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                spacingMult = textView.getLineSpacingMultiplier();
+                spacingAdd = textView.getLineSpacingExtra();
+            }
+            mTextStyles.put(textType, new TextStyle(new TextPaint(paint), width, spacingMult, spacingAdd));
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Precompute
+    // -------------------------------------------------------------
+
+    /**
+     * Precomputes the titles of the card in a background thread
+     *
+     * @param card the card which will be bound soon
+     */
+    public void prepare(Card card) {
+        if (card == null)
+            return;
+        prepare(TEXT_CARD_TITLE, card.getTitle());
+        if (card.getCardHeader() != null)
+            prepare(TEXT_HEADER_TITLE, card.getCardHeader().getTitle());
+    }
+
+    /**
+     * Precomputes a text in a background thread.
+     * Nothing is done if the style of the text isn't known yet.
+     *
+     * @param textType type of text, for example {@link #TEXT_CARD_TITLE}
+     * @param text     the text
+     */
+    public void prepare(int textType, final CharSequence text) {
+        if (TextUtils.isEmpty(text))
+            return;
+
+        final TextStyle style = mTextStyles.get(textType);
+        if (style == null)
+            return;
+
+        LayoutKey key = new LayoutKey(style, text);
+        if (mPreparedTexts.get(key) != null)
+            return;
+        mPreparedTexts.put(key, Boolean.TRUE);
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                //The shaping of the text happens here, out of the main thread
+                new StaticLayout(text, style.paint, style.width,
+                        Layout.Alignment.ALIGN_NORMAL, style.spacingMult, style.spacingAdd, true);
+            }
+        });
+    }
+
+    /**
+     * Forgets the texts already prepared
+     */
+    public void clear() {
+        mPreparedTexts.evictAll();
+    }
+
+    // -------------------------------------------------------------
+    //  Getters and Setters
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the number of cards prepared after the bound card, in the scroll direction
+     *
+     * @return
+     */
+    public int getPrefetchCount() {
+        return mPrefetchCount;
+    }
+
+    /**
+     * Sets the number of cards prepared after the bound card, in the scroll direction
+     *
+     * @param prefetchCount
+     */
+    public void setPrefetchCount(int prefetchCount) {
+        mPrefetchCount = prefetchCount;
+    }
+
+    /**
+     * Sets the executor used to precompute the layouts.
+     * Default is a single background thread, shared by all the precomputers.
+     *
+     * @param executor
+     */
+    public void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    // -------------------------------------------------------------
+    //  Style
+    // -------------------------------------------------------------
+
+    private static class TextStyle {
+        final TextPaint paint;
+        final int width;
+        final float spacingMult;
+        final float spacingAdd;
+
+        TextStyle(TextPaint paint, int width, float spacingMult, float spacingAdd) {
+            this.paint = paint;
+            this.width = width;
+            this.spacingMult = spacingMult;
+            this.spacingAdd = spacingAdd;
+        }
+    }
+
+    /**
+     * Key of a prepared text: the style instance and the text.
+     * A String text is used as it is, so its cached hash code avoids building a new string for each lookup.
+     */
+    protected static final class LayoutKey {
+        private final TextStyle mStyle;
+        private final CharSequence mText;
+        private final int mHash;
+
+        LayoutKey(TextStyle style, CharSequence text) {
+            mStyle = style;
+            //Spanned texts don't have a hash code based on the content
+            mText = text instanceof String ? text : text.toString();
+            mHash = 31 * System.identityHashCode(style) + mText.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof LayoutKey))
+                return false;
+            LayoutKey other = (LayoutKey) o;
+            return mStyle == other.mStyle && mHash == other.mHash && mText.equals(other.mText);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+}
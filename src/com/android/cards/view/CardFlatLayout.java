@@ -0,0 +1,287 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.view;
+
+import android.content.Context;
+import android.support.v4.view.MarginLayoutParamsCompat;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.android.cards.R;
+
+/**
+ * A flat layout for the {@link CardView}.
+ * </p>
+ * It lays out the header, the thumbnail, the content, the shadow and the expand areas as direct children,
+ * with a single measure pass for each child. The children are recognized by their ids:
+ * <ul>
+ *     <li><code>card_main_layout</code>: background of the main area (header, thumbnail and content). Its margins are the insets of the main area.</li>
+ *     <li><code>card_header_layout</code>: header, on top of the main area.</li>
+ *     <li><code>card_thumbnail_layout</code>: thumbnail, at the start of the content.</li>
+ *     <li><code>card_main_content_layout</code>: content.</li>
+ *     <li><code>card_options</code>: overlay over the main area.</li>
+ *     <li><code>card_shadow_layout</code> and <code>card_content_expand_layout</code>: stacked below the main area.</li>
+ * </ul>
+ * Other children are stacked below, in their order.
+ * </p>
+ * Use it with the <code>@layout/card_flat_layout</code> layout:
+ * <pre><code>
+ *  <com.android.cards.view.CardView
+ *      android:id="@+id/list_cardId"
+ *      android:layout_width="match_parent"
+ *      android:layout_height="wrap_content"
+ *      style="@style/list_card.thumbnail"
+ *      card:card_layout_resourceID="@layout/card_flat_layout"/>
+ * </code></pre>
+ * Comparison with the default layouts, in a list row (measured with an unspecified height):
+ * <pre>
+ *                           levels from CardView     measures per row pass
+ *                           to the content           header  thumbnail  content
+ *  card_layout              4                        2       -          2
+ *  card_thumbnail_layout    4                        1       2          2
+ *  card_flat_layout         2                        1       1          1
+ * </pre>
+ * In <code>card_layout</code> the <code>match_parent</code> children of the reveal FrameLayout are measured twice,
+ * in <code>card_thumbnail_layout</code> the horizontal LinearLayout measures again the thumbnail and the content
+ * to give them the same height.
+ * This layout doesn't stretch the thumbnail and the content to the same height: the row of the main area is as high as the highest one.
+ * </p>
+ * The background of the main area is an empty {@link ForegroundLinearLayout}, so a foreground and its hotspot still work.
+ * The header, the thumbnail and the content are its siblings: they are drawn over the foreground,
+ * which is visible through their transparent backgrounds.
+ * </p>
+ * The margins are relative (start and end) and the main area is mirrored in a right-to-left layout.
+ * </p>
+ * It extends {@link FrameLayout} to be used as <code>card_reveal_layout</code>.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class CardFlatLayout extends FrameLayout {
+
+    private View mMainBackground;
+    private View mHeader;
+    private View mThumbnail;
+    private View mContent;
+    private View mOptions;
+
+    /**
+     * Bottom of the main area, computed in the measure pass
+     */
+    private int mMainBottom;
+
+    //--------------------------------------------------------------------------
+    // Constructors
+    //--------------------------------------------------------------------------
+
+    public CardFlatLayout(Context context) {
+        super(context);
+    }
+
+    public CardFlatLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public CardFlatLayout(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+
+        mMainBackground = findChildById(R.id.card_main_layout);
+        mHeader = findChildById(R.id.card_header_layout);
+        mThumbnail = findChildById(R.id.card_thumbnail_layout);
+        mContent = findChildById(R.id.card_main_content_layout);
+        mOptions = findChildById(R.id.card_options);
+    }
+
+    private View findChildById(int id) {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getId() == id)
+                return child;
+        }
+        return null;
+    }
+
+    private boolean isMainAreaChild(View child) {
+        return child == mMainBackground || child == mHeader || child == mThumbnail
+                || child == mContent || child == mOptions;
+    }
+
+    //--------------------------------------------------------------------------
+    // Measure and layout
+    //--------------------------------------------------------------------------
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = MeasureSpec.getSize(widthMeasureSpec);
+        final int horizontalPadding = ViewCompat.getPaddingStart(this) + ViewCompat.getPaddingEnd(this);
+        final int unspecified = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+
+        //Insets of the main area
+        int insetHorizontal = 0;
+        int insetTop = 0;
+        int insetBottom = 0;
+        if (isVisible(mMainBackground)) {
+            MarginLayoutParams lp = (MarginLayoutParams) mMainBackground.getLayoutParams();
+            insetHorizontal = horizontalMargins(lp);
+            insetTop = lp.topMargin;
+            insetBottom = lp.bottomMargin;
+        }
+        final int mainUsed = horizontalPadding + insetHorizontal;
+
+        //Main area: header
+        int mainHeight = 0;
+        if (isVisible(mHeader)) {
+            mainHeight += measureChild(mHeader, widthMeasureSpec, mainUsed, unspecified);
+        }
+
+        //Main area: thumbnail and content in a row
+        int thumbnailWidth = 0;
+        int rowHeight = 0;
+        if (isVisible(mThumbnail)) {
+            rowHeight = measureChild(mThumbnail, widthMeasureSpec, mainUsed, unspecified);
+            thumbnailWidth = horizontalWidth(mThumbnail);
+        }
+        if (isVisible(mContent)) {
+            rowHeight = Math.max(rowHeight,
+                    measureChild(mContent, widthMeasureSpec, mainUsed + thumbnailWidth, unspecified));
+        }
+        mainHeight += rowHeight;
+
+        //Background and overlay fill the main area
+        final int mainWidth = Math.max(0, width - mainUsed);
+        if (isVisible(mMainBackground)) {
+            mMainBackground.measure(MeasureSpec.makeMeasureSpec(mainWidth, MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(mainHeight, MeasureSpec.EXACTLY));
+        }
+        if (isVisible(mOptions)) {
+            mOptions.measure(MeasureSpec.makeMeasureSpec(mainWidth, MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(mainHeight, MeasureSpec.EXACTLY));
+        }
+
+        int height = getPaddingTop() + insetTop + mainHeight + insetBottom;
+        mMainBottom = height;
+
+        //Other children are stacked below
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (!isVisible(child) || isMainAreaChild(child))
+                continue;
+            height += measureChild(child, widthMeasureSpec, horizontalPadding, unspecified);
+        }
+        height += getPaddingBottom();
+
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+                resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    /**
+     * Measures the child once
+     *
+     * @return the height used by the child, with its margins
+     */
+    private int measureChild(View child, int widthMeasureSpec, int widthUsed, int heightMeasureSpec) {
+        MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        int childWidthSpec = getChildMeasureSpec(widthMeasureSpec,
+                widthUsed + horizontalMargins(lp), lp.width);
+        int childHeightSpec = getChildMeasureSpec(heightMeasureSpec,
+                lp.topMargin + lp.bottomMargin, lp.height);
+        child.measure(childWidthSpec, childHeightSpec);
+        return child.getMeasuredHeight() + lp.topMargin + lp.bottomMargin;
+    }
+
+    private int horizontalWidth(View child) {
+        MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        return child.getMeasuredWidth() + horizontalMargins(lp);
+    }
+
+    private static int horizontalMargins(MarginLayoutParams lp) {
+        return MarginLayoutParamsCompat.getMarginStart(lp) + MarginLayoutParamsCompat.getMarginEnd(lp);
+    }
+
+    private static boolean isVisible(View child) {
+        return child != null && child.getVisibility() != GONE;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        //Horizontal offsets are measured from the start edge
+        final int width = right - left;
+        final boolean rtl = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
+
+        int mainStart = ViewCompat.getPaddingStart(this);
+        int mainTop = getPaddingTop();
+        if (isVisible(mMainBackground)) {
+            MarginLayoutParams lp = (MarginLayoutParams) mMainBackground.getLayoutParams();
+            mainStart += MarginLayoutParamsCompat.getMarginStart(lp);
+            mainTop += lp.topMargin;
+            placeChild(mMainBackground, mainStart, mainTop, width, rtl);
+        }
+        if (isVisible(mOptions)) {
+            placeChild(mOptions, mainStart, mainTop, width, rtl);
+        }
+
+        int y = mainTop;
+        if (isVisible(mHeader)) {
+            y = layoutChild(mHeader, mainStart, y, width, rtl);
+        }
+
+        int contentStart = mainStart;
+        if (isVisible(mThumbnail)) {
+            layoutChild(mThumbnail, mainStart, y, width, rtl);
+            contentStart += horizontalWidth(mThumbnail);
+        }
+        if (isVisible(mContent)) {
+            layoutChild(mContent, contentStart, y, width, rtl);
+        }
+
+        y = mMainBottom;
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (!isVisible(child) || isMainAreaChild(child))
+                continue;
+            y = layoutChild(child, ViewCompat.getPaddingStart(this), y, width, rtl);
+        }
+    }
+
+    /**
+     * Lays out the child after its start margin and its top margin
+     *
+     * @return the bottom of the child, with its margins
+     */
+    private int layoutChild(View child, int start, int top, int width, boolean rtl) {
+        MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        int childTop = top + lp.topMargin;
+        placeChild(child, start + MarginLayoutParamsCompat.getMarginStart(lp), childTop, width, rtl);
+        return childTop + child.getMeasuredHeight() + lp.bottomMargin;
+    }
+
+    /**
+     * Places the child at a distance from the start edge, mirrored in a right-to-left layout
+     */
+    private static void placeChild(View child, int start, int top, int width, boolean rtl) {
+        int childLeft = rtl ? width - start - child.getMeasuredWidth() : start;
+        child.layout(childLeft, top, childLeft + child.getMeasuredWidth(), top + child.getMeasuredHeight());
+    }
+}
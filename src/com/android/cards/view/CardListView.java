@@ -27,7 +27,6 @@ import android.util.AttributeSet;
 import android.util.Log;
 import android.view.ScaleGestureDetector;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.AbsListView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
@@ -37,6 +36,8 @@ import com.android.cards.internal.Card;
 import com.android.cards.internal.CardArrayAdapter;
 import com.android.cards.internal.CardCursorAdapter;
 import com.android.cards.view.base.CardViewWrapper;
+import com.android.cards.view.helper.CardExpandAnimator;
+import com.android.cards.view.helper.CardExpandHeightCache;
 import com.android.cards.view.listener.SwipeOnScrollListener;
 
 /**
@@ -64,7 +65,8 @@ import com.android.cards.view.listener.SwipeOnScrollListener;
  * </p>
  * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
  */
-public class CardListView extends ListView implements CardViewWrapper.OnExpandListAnimatorListener {
+public class CardListView extends ListView implements CardViewWrapper.OnExpandListAnimatorListener,
+        CardExpandHeightCache.Provider {
 
     protected static String TAG = "CardListView";
 
@@ -88,6 +90,11 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
      */
     protected ScaleGestureDetector mGestureDetector;
 
+    /**
+     * Measured heights of the expand layouts of the cards in this list
+     */
+    protected final CardExpandHeightCache mExpandHeightCache = new CardExpandHeightCache();
+
 
     //--------------------------------------------------------------------------
     // Custom Attrs
@@ -279,6 +286,16 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
     // Expand and Collapse animator
     //--------------------------------------------------------------------------
 
+    /**
+     * Returns the cache of the expand heights of the cards in this list
+     *
+     * @return
+     */
+    @Override
+    public CardExpandHeightCache getExpandHeightCache() {
+        return mExpandHeightCache;
+    }
+
     @Override
     public void onExpandStart(CardViewWrapper viewCard,View expandingLayout) {
 
@@ -288,7 +305,7 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
         }
 
         if (expandable)
-            ExpandCollapseHelper.animateExpanding(expandingLayout,viewCard,this);
+            ExpandCollapseHelper.animateExpanding(expandingLayout,viewCard,this,mExpandHeightCache);
 
         if (mCursorAdapter!=null){
             mCursorAdapter.onExpandEnd(viewCard);
@@ -304,7 +321,7 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
         }
 
         if (collapsible)
-            ExpandCollapseHelper.animateCollapsing(expandingLayout,viewCard,this);
+            ExpandCollapseHelper.animateCollapsing(expandingLayout,viewCard,this,mExpandHeightCache);
 
         if (mCursorAdapter!=null){
             mCursorAdapter.onCollapseEnd(viewCard);
@@ -322,11 +339,16 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
          * @param expandingLayout  layout to expand
          * @param cardView         cardView
          * @param listView         listView
+         * @param heightCache      cache of the expand heights
          */
-        public static void animateCollapsing(final View expandingLayout, final CardViewWrapper cardView,final AbsListView listView) {
-            int origHeight = expandingLayout.getHeight();
+        public static void animateCollapsing(final View expandingLayout, final CardViewWrapper cardView,final AbsListView listView,
+                                             final CardExpandHeightCache heightCache) {
+            View row = findDirectChild(expandingLayout, listView);
+
+            //The expand layout is laid out: its height is free
+            heightCache.updateExpandHeight(cardView.getCard(), expandingLayout);
 
-            ValueAnimator animator = createHeightAnimator(expandingLayout, origHeight, 0);
+            ValueAnimator animator = CardExpandAnimator.createCollapseAnimator(row, expandingLayout);
             animator.addListener(new AnimatorListenerAdapter() {
 
                 @Override
@@ -351,27 +373,29 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
          * @param expandingLayout  layout to collapse
          * @param cardView         cardView
          * @param listView         listView
+         * @param heightCache      cache of the expand heights
          */
-        public static void animateExpanding(final View expandingLayout, final CardViewWrapper cardView,final AbsListView listView) {
+        public static void animateExpanding(final View expandingLayout, final CardViewWrapper cardView,final AbsListView listView,
+                                             final CardExpandHeightCache heightCache) {
             /* Update the layout so the extra content becomes visible.*/
             expandingLayout.setVisibility(View.VISIBLE);
 
-            View parent = (View) expandingLayout.getParent();
-            final int widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getMeasuredWidth() - parent.getPaddingLeft() - parent.getPaddingRight(), View.MeasureSpec.AT_MOST);
-            final int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
-            expandingLayout.measure(widthSpec, heightSpec);
+            //The height is measured only if the card isn't in cache
+            final int expandHeight = heightCache.measureExpandHeight(cardView.getCard(), expandingLayout);
 
-            ValueAnimator animator = createHeightAnimator(expandingLayout, 0, expandingLayout.getMeasuredHeight());
+            final View row = findDirectChild(expandingLayout, listView);
+
+            ValueAnimator animator = CardExpandAnimator.createExpandAnimator(row, expandingLayout, expandHeight);
             animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
                 final int listViewHeight = listView.getHeight();
                 final int listViewBottomPadding = listView.getPaddingBottom();
-                final View v = findDirectChild(expandingLayout, listView);
 
                 @Override
                 public void onAnimationUpdate(final ValueAnimator valueAnimator) {
-                    final int bottom = v.getBottom();
+                    //The row is clipped to the revealed part of the expand layout
+                    final int bottom = row.getBottom() - expandingLayout.getHeight() + (Integer) valueAnimator.getAnimatedValue();
                     if (bottom > listViewHeight) {
-                        final int top = v.getTop();
+                        final int top = row.getTop();
                         if (top > 0) {
                             listView.smoothScrollBy(Math.min(bottom - listViewHeight + listViewBottomPadding, top), 0);
                         }
@@ -395,6 +419,42 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
             animator.start();
         }
 
+        /**
+         * Collapses the card, using the height cache of the list
+         *
+         * @deprecated use the method with the {@link CardExpandHeightCache} argument
+         */
+        @Deprecated
+        public static void animateCollapsing(final View expandingLayout, final CardViewWrapper cardView, final AbsListView listView) {
+            animateCollapsing(expandingLayout, cardView, listView, getExpandHeightCache(listView));
+        }
+
+        /**
+         * Expands the card, using the height cache of the list
+         *
+         * @deprecated use the method with the {@link CardExpandHeightCache} argument
+         */
+        @Deprecated
+        public static void animateExpanding(final View expandingLayout, final CardViewWrapper cardView, final AbsListView listView) {
+            animateExpanding(expandingLayout, cardView, listView, getExpandHeightCache(listView));
+        }
+
+        private static CardExpandHeightCache getExpandHeightCache(AbsListView listView) {
+            if (listView instanceof CardExpandHeightCache.Provider)
+                return ((CardExpandHeightCache.Provider) listView).getExpandHeightCache();
+            return new CardExpandHeightCache(1);
+        }
+
+        /**
+         * Creates an animator which changes the height of the view on each frame
+         *
+         * @deprecated use {@link CardExpandAnimator#createHeightAnimator(View, int, int)}
+         */
+        @Deprecated
+        public static ValueAnimator createHeightAnimator(final View view, final int start, final int end) {
+            return CardExpandAnimator.createHeightAnimator(view, start, end);
+        }
+
         private static View findDirectChild(final View view, final AbsListView listView) {
             View result = view;
             View parent = (View) result.getParent();
@@ -405,22 +465,6 @@ public class CardListView extends ListView implements CardViewWrapper.OnExpandLi
             return result;
         }
 
-        public static ValueAnimator createHeightAnimator(final View view, final int start, final int end) {
-            ValueAnimator animator = ValueAnimator.ofInt(start, end);
-            animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-
-                @Override
-                public void onAnimationUpdate(final ValueAnimator valueAnimator) {
-                    int value = (Integer) valueAnimator.getAnimatedValue();
-
-                    ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
-                    layoutParams.height = value;
-                    view.setLayoutParams(layoutParams);
-                }
-            });
-            return animator;
-        }
-
         /**
          * This method notifies the adapter after setting expand value inside cards
          *
@@ -24,6 +24,7 @@ import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
@@ -32,17 +33,18 @@ import android.os.Build;
 import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewAnimationUtils;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewParent;
-import android.view.ViewTreeObserver;
 import android.view.animation.PathInterpolator;
 import android.widget.FrameLayout;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import com.android.cards.R;
 import com.android.cards.internal.Card;
@@ -53,6 +55,8 @@ import com.android.cards.internal.ViewToClickToExpand;
 import com.android.cards.view.base.CardViewWrapper;
 import com.android.cards.view.component.CardHeaderView;
 import com.android.cards.view.component.CardThumbnailView;
+import com.android.cards.view.helper.CardExpandAnimator;
+import com.android.cards.view.helper.CardExpandHeightCache;
 import com.android.cards.view.listener.SwipeDismissViewTouchListener;
 
 /**
@@ -160,6 +164,11 @@ public class CardView extends BaseCardView implements CardViewWrapper {
      */
     protected View mInternalExpandInnerView;
 
+    /**
+     * <code>true</code> if the expand inner view has to be inflated at the first expand
+     */
+    protected boolean mExpandInnerViewPending = false;
+
     private FrameLayout mRevealLayout;
 
 
@@ -172,9 +181,37 @@ public class CardView extends BaseCardView implements CardViewWrapper {
      */
     protected OnExpandListAnimatorListener mOnExpandListAnimatorListener;
 
+    /**
+     * Cache of the expand height, used when the card isn't displayed by a list
+     */
+    private CardExpandHeightCache mExpandHeightCache;
+
+    /**
+     * If <code>true</code> the backgrounds are changed only when the card needs another background
+     */
+    protected boolean mOverdrawOptimized = false;
+
+    /**
+     * Backgrounds applied to the main layout, used in the overdraw optimized mode
+     */
+    private int mAppliedBackgroundResourceId = 0;
+    private Drawable mAppliedBackgroundDrawable;
+
     private boolean mOptionsShown = false;
     private int mUpX, mUpY;
 
+    /**
+     * Swipe listener of the card view.
+     * The listeners are created once and read the current card at event time.
+     */
+    private SwipeDismissViewTouchListener mSwipeListener;
+
+    /**
+     * Swipe listeners of the partial areas, keyed by area
+     */
+    private final SparseArray<SwipeDismissViewTouchListener> mPartialSwipeListeners =
+            new SparseArray<SwipeDismissViewTouchListener>();
+
     //--------------------------------------------------------------------------
     // Constructor
     //--------------------------------------------------------------------------
@@ -211,6 +248,7 @@ public class CardView extends BaseCardView implements CardViewWrapper {
 
         try {
             card_layout_resourceID = a.getResourceId(R.styleable.card_options_card_layout_resourceID, this.card_layout_resourceID);
+            mOverdrawOptimized = a.getBoolean(R.styleable.card_options_card_overdraw_optimized, mOverdrawOptimized);
         } finally {
             a.recycle();
         }
@@ -238,6 +276,11 @@ public class CardView extends BaseCardView implements CardViewWrapper {
     @Override
     public void setCard(Card card){
 
+        //Binding again the same card (for example after adapter.notifyDataSetChanged()):
+        //the content of the expand layout can change
+        if (card != null && card == mCard)
+            getExpandHeightCache().invalidate(card);
+
         super.setCard(card);
         if (card!=null){
             mCardHeader=card.getCardHeader();
@@ -260,6 +303,9 @@ public class CardView extends BaseCardView implements CardViewWrapper {
      * @param card
      */
     public void refreshCard(Card card) {
+        //The content of the expand layout can change
+        getExpandHeightCache().invalidate(card);
+
         mIsRecycle=true;
         setCard(card);
         mIsRecycle=false;
@@ -325,6 +371,7 @@ public class CardView extends BaseCardView implements CardViewWrapper {
 
         //Main Layout
         mInternalMainCardLayout = (View) findViewById(R.id.card_main_layout);
+        resetAppliedBackground();
 
         //Get HeaderLayout
         mInternalHeaderLayout = (CardHeaderView) findViewById(R.id.card_header_layout);
@@ -502,33 +549,24 @@ public class CardView extends BaseCardView implements CardViewWrapper {
 
     protected void setupExpandAction(){
 
-        //Config ExpandLayout and its animation
-        if ( mInternalExpandLayout !=null && ( (mCardHeader!=null && mCardHeader.isButtonExpandVisible()) ||
-                mCard.getViewToClickToExpand()!=null)  ){
-
-            //Create the expand/collapse animator
-            mInternalExpandLayout.getViewTreeObserver().addOnPreDrawListener(
-                    new ViewTreeObserver.OnPreDrawListener() {
-
-                        @Override
-                        public boolean onPreDraw() {
-                            mInternalExpandLayout.getViewTreeObserver().removeOnPreDrawListener(this);
-
-                            View parent = (View) mInternalExpandLayout.getParent();
-                            final int widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getMeasuredWidth() - parent.getPaddingLeft() - parent.getPaddingRight(), View.MeasureSpec.AT_MOST);
-                            final int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
-                            mInternalExpandLayout.measure(widthSpec, heightSpec);
-
-                            mExpandAnimator = ExpandCollapseHelper.createSlideAnimator((CardView)mCard.getCardView(), 0, mInternalExpandLayout.getMeasuredHeight());
-                            return true;
-                        }
-                    });
-        }
+        //The expand/collapse animator is created at the first expand.
+        //The height of the expand layout is measured only if it isn't in cache.
+        mExpandAnimator = null;
 
         //Setup action and callback
         setupExpandCollapseActionListener();
     }
 
+    /**
+     * Returns <code>true</code> if the card has a button or a view to expand/collapse the expand layout
+     *
+     * @return
+     */
+    protected boolean hasExpandAction() {
+        return mInternalExpandLayout != null && ((mCardHeader != null && mCardHeader.isButtonExpandVisible()) ||
+                mCard.getViewToClickToExpand() != null);
+    }
+
     /**
      * Setup All listeners
      */
@@ -563,17 +601,9 @@ public class CardView extends BaseCardView implements CardViewWrapper {
                         hasPartialClickListener = true;
                         for (int key:mMultipleOnClickListner.keySet()){
                             View viewClickable= decodeAreaOnClickListener(key);
-                            final Card.OnCardClickListener mListener=mMultipleOnClickListner.get(key);
                             if (viewClickable!=null){
                                 //Add listener to this view
-                                viewClickable.setOnClickListener(new OnClickListener() {
-                                    @Override
-                                    public void onClick(View v) {
-                                        //Callback to card listener
-                                        if (mListener!=null)
-                                            mListener.onClick(mCard,v);
-                                    }
-                                });
+                                viewClickable.setOnClickListener(mPartialClickDispatcher);
 
                                 //Add Selector to this view
                                 if (key > Card.CLICK_LISTENER_ALL_VIEW) {
@@ -595,14 +625,7 @@ public class CardView extends BaseCardView implements CardViewWrapper {
         // LongClick and partial listeners.
         if (mCard.isLongClickable()) {
             if (mCard.getOnLongClickListener() != null) {
-                this.setOnLongClickListener(new OnLongClickListener() {
-                    @Override
-                    public boolean onLongClick(View v) {
-                        if (mCard.getOnLongClickListener()!=null)
-                            return mCard.getOnLongClickListener().onLongClick(mCard, v);
-                        return false;
-                    }
-                });
+                this.setOnLongClickListener(mGlobalLongClickDispatcher);
             }
             HashMap<Integer, Card.OnLongCardClickListener> multipleOnLongClickListner =
                     mCard.getMultipleOnLongClickListener();
@@ -610,24 +633,13 @@ public class CardView extends BaseCardView implements CardViewWrapper {
 
                 for (int key : multipleOnLongClickListner.keySet()) {
                     View viewLongClickable = decodeAreaOnClickListener(key);
-                    final Card.OnLongCardClickListener listener =
-                            multipleOnLongClickListner.get(key);
                     if (viewLongClickable != null) {
                         //Add listener to this view
-                        viewLongClickable.setOnLongClickListener(new OnLongClickListener() {
-                            @Override
-                            public boolean onLongClick(View v) {
-                                //Callback to card listener
-                                if (listener != null) {
-                                    return listener.onLongClick(mCard, v);
-                                }
-                                return false;
-                            }
-                        });
+                        viewLongClickable.setOnLongClickListener(mPartialLongClickDispatcher);
                         // We may have only partial longclicklistener. So add for each view
                         // in this case the global click listener.
                         // As well add for this view if available the swipe listener.
-                        addGlobalSwipeListener(viewLongClickable);
+                        addPartialSwipeListener(key, viewLongClickable);
                         if (!hasPartialClickListener) {
                             addGlobalClickListener(viewLongClickable);
                         }
@@ -638,69 +650,153 @@ public class CardView extends BaseCardView implements CardViewWrapper {
             this.setLongClickable(false);
         }
 
-        mRevealLayout.setOnTouchListener(new View.OnTouchListener() {
-            @Override
-            public boolean onTouch(View v, MotionEvent event) {
-                mUpX = (int) event.getRawX();
-                mUpY = (int) event.getRawY();
-                return false;
-            }
-        });
-        mRevealLayout.setOnLongClickListener(new View.OnLongClickListener() {
-            @Override
-            public boolean onLongClick(View v) {
-                int[] temp = new int[2];
-                getLocationOnScreen(temp);
-                int x = mUpX - temp[0];
-                int y = mUpY - temp[1];
-                if (isOptionsVisible()) {
-                    hideOptions(x, y);
-                } else {
-                    showOptions(x, y);
-                }
-                return true;
-            }
-        });
+        mRevealLayout.setOnTouchListener(mRevealTouchListener);
+        mRevealLayout.setOnLongClickListener(mRevealLongClickListener);
         addGlobalClickListener(mRevealLayout);
     }
 
     private void addGlobalClickListener(View view) {
         if (mCard.isClickable() && !mCard.isMultiChoiceEnabled()
                 && mCard.getOnClickListener() != null) {
-            view.setOnClickListener(new OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                   if (mCard.getOnClickListener() != null) {
-                       mCard.getOnClickListener().onClick(mCard, v);
-                   }
-                }
-            });
+            view.setOnClickListener(mGlobalClickDispatcher);
         }
     }
 
     private void addGlobalSwipeListener(View view) {
         if (mCard.isSwipeable()) {
-            view.setOnTouchListener(new SwipeDismissViewTouchListener(this,
-                    mCard, new SwipeDismissViewTouchListener.DismissCallbacks() {
-                @Override
-                public boolean canDismiss(Card card) {
-                    return card.isSwipeable();
-                }
+            if (mSwipeListener == null) {
+                mSwipeListener = new SwipeDismissViewTouchListener(this, mCard, mDismissCallbacks);
+            } else {
+                mSwipeListener.setCard(mCard);
+            }
+            view.setOnTouchListener(mSwipeListener);
+        } else {
+            view.setOnTouchListener(null);
+        }
+    }
 
-                @Override
-                public void onDismiss(CardViewWrapper cardView, Card card) {
-                    final ViewGroup vg = (ViewGroup)(cardView.getCardParent());
-                    if (vg!=null){
-                        vg.removeView(cardView.getCardView());
-                        card.onSwipeCard();
-                    }
-                }
-            }));
+    private void addPartialSwipeListener(int area, View view) {
+        if (mCard.isSwipeable()) {
+            SwipeDismissViewTouchListener listener = mPartialSwipeListeners.get(area);
+            if (listener == null) {
+                listener = new SwipeDismissViewTouchListener(this, mCard, mDismissCallbacks);
+                mPartialSwipeListeners.put(area, listener);
+            } else {
+                listener.setCard(mCard);
+            }
+            view.setOnTouchListener(listener);
         } else {
             view.setOnTouchListener(null);
         }
     }
 
+    /**
+     * Returns the partial listener registered for the view
+     *
+     * @param listeners partial listeners of the card
+     * @param view      clicked view
+     * @return the listener, or <code>null</code>
+     */
+    private <L> L findPartialListener(HashMap<Integer, L> listeners, View view) {
+        if (listeners != null) {
+            for (Map.Entry<Integer, L> entry : listeners.entrySet()) {
+                if (decodeAreaOnClickListener(entry.getKey()) == view)
+                    return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    // -------------------------------------------------------------
+    //  Shared listeners
+    // -------------------------------------------------------------
+
+    private final SwipeDismissViewTouchListener.DismissCallbacks mDismissCallbacks =
+            new SwipeDismissViewTouchListener.DismissCallbacks() {
+        @Override
+        public boolean canDismiss(Card card) {
+            return card.isSwipeable();
+        }
+
+        @Override
+        public void onDismiss(CardViewWrapper cardView, Card card) {
+            final ViewGroup vg = (ViewGroup)(cardView.getCardParent());
+            if (vg!=null){
+                vg.removeView(cardView.getCardView());
+                card.onSwipeCard();
+            }
+        }
+    };
+
+    private final OnClickListener mGlobalClickDispatcher = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            if (mCard != null && mCard.getOnClickListener() != null) {
+                mCard.getOnClickListener().onClick(mCard, v);
+            }
+        }
+    };
+
+    private final OnLongClickListener mGlobalLongClickDispatcher = new OnLongClickListener() {
+        @Override
+        public boolean onLongClick(View v) {
+            if (mCard != null && mCard.getOnLongClickListener() != null)
+                return mCard.getOnLongClickListener().onLongClick(mCard, v);
+            return false;
+        }
+    };
+
+    private final OnClickListener mPartialClickDispatcher = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            if (mCard == null)
+                return;
+            //Callback to card listener
+            Card.OnCardClickListener listener = findPartialListener(mCard.getMultipleOnClickListener(), v);
+            if (listener != null)
+                listener.onClick(mCard, v);
+        }
+    };
+
+    private final OnLongClickListener mPartialLongClickDispatcher = new OnLongClickListener() {
+        @Override
+        public boolean onLongClick(View v) {
+            if (mCard == null)
+                return false;
+            //Callback to card listener
+            Card.OnLongCardClickListener listener = findPartialListener(mCard.getMultipleOnLongClickListener(), v);
+            if (listener != null)
+                return listener.onLongClick(mCard, v);
+            return false;
+        }
+    };
+
+    private final OnTouchListener mRevealTouchListener = new OnTouchListener() {
+        @Override
+        public boolean onTouch(View v, MotionEvent event) {
+            mUpX = (int) event.getRawX();
+            mUpY = (int) event.getRawY();
+            return false;
+        }
+    };
+
+    private final OnLongClickListener mRevealLongClickListener = new OnLongClickListener() {
+        private final int[] mLocation = new int[2];
+
+        @Override
+        public boolean onLongClick(View v) {
+            getLocationOnScreen(mLocation);
+            int x = mUpX - mLocation[0];
+            int y = mUpY - mLocation[1];
+            if (isOptionsVisible()) {
+                hideOptions(x, y);
+            } else {
+                showOptions(x, y);
+            }
+            return true;
+        }
+    };
+
     /**
      * Reset all partial listeners
      */
@@ -870,20 +966,66 @@ public class CardView extends BaseCardView implements CardViewWrapper {
                 if (isForceReplaceInnerLayout() && mInternalExpandLayout!=null && mInternalExpandInnerView!=null)
                     ((ViewGroup)mInternalExpandLayout).removeView(mInternalExpandInnerView);
 
-                mInternalExpandInnerView=mCardExpand.getInnerView(getContext(),(ViewGroup) mInternalExpandLayout);
-            }else{
+                //The inner view is inflated at the first expand
+                mInternalExpandInnerView = null;
+                mExpandInnerViewPending = true;
+            }else if (mInternalExpandInnerView != null){
                 //View can be recycled.
                 //Only setup Inner Elements
                 if (mCardExpand.getInnerLayout()>-1)
                     mCardExpand.setupInnerViewElements((ViewGroup)mInternalExpandLayout,mInternalExpandInnerView);
+            }else{
+                //The recycled view has never been expanded
+                mExpandInnerViewPending = true;
             }
 
             ViewGroup.LayoutParams layoutParams = mInternalExpandLayout.getLayoutParams();
             layoutParams.height = LayoutParams.WRAP_CONTENT;
             mInternalExpandLayout.setLayoutParams(layoutParams);
+
+            //An expanded card shows the expand area immediately
+            if (mCard.isExpanded())
+                ensureExpandInnerView();
         }
     }
 
+    /**
+     * Inflates the expand inner view, if it has been deferred until the first expand
+     */
+    protected void ensureExpandInnerView() {
+        if (!mExpandInnerViewPending || mInternalExpandLayout == null || mCardExpand == null)
+            return;
+
+        mExpandInnerViewPending = false;
+        mInternalExpandInnerView = mCardExpand.getInnerView(getContext(), (ViewGroup) mInternalExpandLayout);
+
+        //The animator was built with the empty expand area
+        mExpandAnimator = null;
+    }
+
+    /**
+     * Returns the cache of the expand heights.
+     * It is the cache of the list which displays the card, or a cache owned by this view.
+     *
+     * @return
+     */
+    public CardExpandHeightCache getExpandHeightCache() {
+        if (mOnExpandListAnimatorListener instanceof CardExpandHeightCache.Provider)
+            return ((CardExpandHeightCache.Provider) mOnExpandListAnimatorListener).getExpandHeightCache();
+
+        if (mExpandHeightCache == null)
+            mExpandHeightCache = new CardExpandHeightCache(1);
+        return mExpandHeightCache;
+    }
+
+    /**
+     * Measures the expand area, if its height isn't in cache, and creates the expand animator
+     */
+    protected void createExpandAnimator() {
+        int expandHeight = getExpandHeightCache().measureExpandHeight(mCard, mInternalExpandLayout);
+        mExpandAnimator = CardExpandAnimator.createExpandAnimator(this, mInternalExpandLayout, expandHeight);
+    }
+
     public void doToggleExpand() {
 
         if (mInternalExpandLayout != null) {
@@ -1006,6 +1148,9 @@ public class CardView extends BaseCardView implements CardViewWrapper {
          */
         private static void animateExpanding(final ExpandContainerHelper helper) {
 
+            //Inflate the expand area at the first expand
+            helper.getCardView().ensureExpandInnerView();
+
             //Callback
             if (helper.card.getOnExpandAnimatorStartListener() != null)
                 helper.card.getOnExpandAnimatorStartListener().onExpandStart(helper.card);
@@ -1016,10 +1161,14 @@ public class CardView extends BaseCardView implements CardViewWrapper {
             }else{
                 //Std animator
                 helper.contentParent.setVisibility(View.VISIBLE);
+                if (helper.getCardView().mExpandAnimator == null && helper.getCardView().hasExpandAction())
+                    helper.getCardView().createExpandAnimator();
                 if (helper.getCardView().mExpandAnimator != null) {
                     helper.getCardView().mExpandAnimator.addListener(new AnimatorListenerAdapter() {
                         @Override
                         public void onAnimationEnd(Animator animation) {
+                            //The animator is reused by the next expand
+                            animation.removeListener(this);
                             helper.card.setExpanded(true);
                             //Callback
                             if (helper.card.getOnExpandAnimatorEndListener() != null)
@@ -1049,9 +1198,10 @@ public class CardView extends BaseCardView implements CardViewWrapper {
                 helper.getCardView().getOnExpandListAnimatorListener().onCollapseStart(helper.getCardView(), helper.contentParent);
             }else{
                 //Std animator
-                int origHeight = helper.contentParent.getHeight();
+                //The expand layout is laid out: its height is free
+                helper.getCardView().getExpandHeightCache().updateExpandHeight(helper.card, helper.contentParent);
 
-                ValueAnimator animator = createSlideAnimator(helper.getCardView(),origHeight, 0);
+                ValueAnimator animator = CardExpandAnimator.createCollapseAnimator(helper.getCardView(), helper.contentParent);
                 animator.addListener(new Animator.AnimatorListener() {
                     @Override
                     public void onAnimationStart(Animator animator) {
@@ -1079,25 +1229,6 @@ public class CardView extends BaseCardView implements CardViewWrapper {
         }
 
 
-        /**
-         * Create the Slide Animator invoked when the expand/collapse button is clicked
-         */
-        protected static ValueAnimator createSlideAnimator(final CardView cardView,int start, int end) {
-            ValueAnimator animator = ValueAnimator.ofInt(start, end);
-
-            animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                    int value = (Integer) valueAnimator.getAnimatedValue();
-
-                    ViewGroup.LayoutParams layoutParams = cardView.mInternalExpandLayout.getLayoutParams();
-                    layoutParams.height = value;
-                    cardView.mInternalExpandLayout.setLayoutParams(layoutParams);
-                }
-            });
-            return animator;
-        }
-
     }
 
     // -------------------------------------------------------------
@@ -1222,7 +1353,16 @@ public class CardView extends BaseCardView implements CardViewWrapper {
     public void changeBackgroundResourceId(int drawableResourceId) {
         if (drawableResourceId!=0){
             if (mInternalMainCardLayout!=null){
-                mInternalMainCardLayout.setBackgroundResource(drawableResourceId);
+                if (mOverdrawOptimized) {
+                    //Don't replace the drawable if the card uses the same background
+                    if (mAppliedBackgroundResourceId != drawableResourceId) {
+                        mInternalMainCardLayout.setBackgroundResource(drawableResourceId);
+                        mAppliedBackgroundResourceId = drawableResourceId;
+                        mAppliedBackgroundDrawable = null;
+                    }
+                } else {
+                    mInternalMainCardLayout.setBackgroundResource(drawableResourceId);
+                }
             }
         }
     }
@@ -1236,7 +1376,11 @@ public class CardView extends BaseCardView implements CardViewWrapper {
     public void changeBackgroundResource(Drawable drawableResource) {
         if (drawableResource!=null){
             if (mInternalMainCardLayout!=null){
+                if (mOverdrawOptimized && mAppliedBackgroundDrawable == drawableResource)
+                    return;
                 mHelperImpl.setBackground(mInternalMainCardLayout, drawableResource);
+                mAppliedBackgroundDrawable = drawableResource;
+                mAppliedBackgroundResourceId = 0;
             }
         }
     }
@@ -1246,6 +1390,41 @@ public class CardView extends BaseCardView implements CardViewWrapper {
         //TODO : do nothing for now
     }
 
+    /**
+     * Forgets the applied backgrounds, when the main layout is replaced
+     */
+    private void resetAppliedBackground() {
+        mAppliedBackgroundResourceId = 0;
+        mAppliedBackgroundDrawable = null;
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        //The next bind loads the backgrounds from the new resources
+        resetAppliedBackground();
+    }
+
+    /**
+     * Returns <code>true</code> if the overdraw optimized mode is enabled
+     *
+     * @return
+     */
+    public boolean isOverdrawOptimized() {
+        return mOverdrawOptimized;
+    }
+
+    /**
+     * Enables the overdraw optimized mode.
+     * In this mode the backgrounds of the cards aren't replaced when the recycled view already uses the same background.
+     * You can also use the attr <code>card:card_overdraw_optimized</code>
+     *
+     * @param overdrawOptimized
+     */
+    public void setOverdrawOptimized(boolean overdrawOptimized) {
+        mOverdrawOptimized = overdrawOptimized;
+    }
+
     public ViewParent getCardParent() {
         return getParent();
     }
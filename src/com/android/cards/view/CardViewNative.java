@@ -24,6 +24,7 @@ import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
@@ -36,10 +37,10 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
-import android.view.ViewTreeObserver;
 import android.widget.LinearLayout;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import com.android.cards.R;
 import com.android.cards.internal.Card;
@@ -50,6 +51,8 @@ import com.android.cards.internal.ViewToClickToExpand;
 import com.android.cards.view.base.CardViewWrapper;
 import com.android.cards.view.component.CardHeaderView;
 import com.android.cards.view.component.CardThumbnailView;
+import com.android.cards.view.helper.CardExpandAnimator;
+import com.android.cards.view.helper.CardExpandHeightCache;
 import com.android.cards.view.helper.CardViewHelper;
 import com.android.cards.view.helper.CardViewHelperUtil;
 import com.android.cards.view.listener.SwipeDismissViewTouchListener;
@@ -206,6 +209,11 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
      */
     protected View mInternalExpandInnerView;
 
+    /**
+     * <code>true</code> if the expand inner view has to be inflated at the first expand
+     */
+    protected boolean mExpandInnerViewPending = false;
+
 
     /** Animator to expand/collapse */
     protected Animator mExpandAnimator;
@@ -216,6 +224,29 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
      */
     protected OnExpandListAnimatorListener mOnExpandListAnimatorListener;
 
+    /**
+     * Cache of the expand height, used when the card isn't displayed by a list
+     */
+    private CardExpandHeightCache mExpandHeightCache;
+
+    /**
+     * If <code>true</code> the backgrounds are changed only when the card needs another background
+     */
+    protected boolean mOverdrawOptimized = false;
+
+    /**
+     * Backgrounds applied to the main layout, used in the overdraw optimized mode
+     */
+    private int mAppliedBackgroundResourceId = Card.DEFAULT_COLOR;
+    private Drawable mAppliedBackgroundDrawable;
+    private int mAppliedBackgroundColorResourceId = Card.DEFAULT_COLOR;
+
+    /**
+     * Swipe listener of the card view.
+     * The listeners are created once and read the current card at event time.
+     */
+    private SwipeDismissViewTouchListener mSwipeListener;
+
     //--------------------------------------------------------------------------
     // Constructor
     //--------------------------------------------------------------------------
@@ -270,6 +301,7 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
 
         try {
             card_layout_resourceID = a.getResourceId(R.styleable.card_options_card_layout_resourceID, this.card_layout_resourceID);
+            mOverdrawOptimized = a.getBoolean(R.styleable.card_options_card_overdraw_optimized, mOverdrawOptimized);
         } finally {
             a.recycle();
         }
@@ -314,6 +346,11 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
     @Override
     public void setCard(Card card){
 
+        //Binding again the same card (for example after adapter.notifyDataSetChanged()):
+        //the content of the expand layout can change
+        if (card != null && card == mCard)
+            getExpandHeightCache().invalidate(card);
+
         mCard = card;
 
         if (card!=null){
@@ -347,6 +384,9 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
      * @param card
      */
     public void refreshCard(Card card) {
+        //The content of the expand layout can change
+        getExpandHeightCache().invalidate(card);
+
         mIsRecycle=true;
         setCard(card);
         mIsRecycle=false;
@@ -411,6 +451,7 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
 
         //Main Layout
         mInternalMainCardLayout = (View) findViewById(R.id.card_main_layout);
+        resetAppliedBackground();
 
         //Get HeaderLayout
         mInternalHeaderLayout = (CardHeaderView) findViewById(R.id.card_header_layout);
@@ -544,33 +585,24 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
 
     protected void setupExpandAction(){
 
-        //Config ExpandLayout and its animation
-        if ( mInternalExpandLayout !=null && ( (mCardHeader!=null && mCardHeader.isButtonExpandVisible()) ||
-                mCard.getViewToClickToExpand()!=null)  ){
-
-            //Create the expand/collapse animator
-            mInternalExpandLayout.getViewTreeObserver().addOnPreDrawListener(
-                    new ViewTreeObserver.OnPreDrawListener() {
-
-                        @Override
-                        public boolean onPreDraw() {
-                            mInternalExpandLayout.getViewTreeObserver().removeOnPreDrawListener(this);
-
-                            View parent = (View) mInternalExpandLayout.getParent();
-                            final int widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getMeasuredWidth() - parent.getPaddingLeft() - parent.getPaddingRight(), View.MeasureSpec.AT_MOST);
-                            final int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
-                            mInternalExpandLayout.measure(widthSpec, heightSpec);
-
-                            mExpandAnimator = ExpandCollapseHelper.createSlideAnimator((CardViewNative)mCard.getCardView(),0, mInternalExpandLayout.getMeasuredHeight());
-                            return true;
-                        }
-                    });
-        }
+        //The expand/collapse animator is created at the first expand.
+        //The height of the expand layout is measured only if it isn't in cache.
+        mExpandAnimator = null;
 
         //Setup action and callback
         setupExpandCollapseActionListener();
     }
 
+    /**
+     * Returns <code>true</code> if the card has a button or a view to expand/collapse the expand layout
+     *
+     * @return
+     */
+    protected boolean hasExpandAction() {
+        return mInternalExpandLayout != null && ((mCardHeader != null && mCardHeader.isButtonExpandVisible()) ||
+                mCard.getViewToClickToExpand() != null);
+    }
+
     /**
      * Setup All listeners
      */
@@ -580,21 +612,12 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
 
         //Swipe listener
         if (mCard.isSwipeable()){
-            this.setOnTouchListener(new SwipeDismissViewTouchListener(this, mCard,new SwipeDismissViewTouchListener.DismissCallbacks() {
-                @Override
-                public boolean canDismiss(Card card) {
-                    return card.isSwipeable();
-                }
-
-                @Override
-                public void onDismiss(CardViewWrapper cardView, Card card) {
-                    final ViewGroup vg = (ViewGroup)(((View)cardView).getParent());
-                    if (vg!=null){
-                        vg.removeView((View)cardView);
-                        card.onSwipeCard();
-                    }
-                }
-            }));
+            if (mSwipeListener == null) {
+                mSwipeListener = new SwipeDismissViewTouchListener(this, mCard, mDismissCallbacks);
+            } else {
+                mSwipeListener.setCard(mCard);
+            }
+            this.setOnTouchListener(mSwipeListener);
         }else{
             this.setOnTouchListener(null);
         }
@@ -608,13 +631,7 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
             //Set the onClickListener
             if(!mCard.isMultiChoiceEnabled()){
                 if (mCard.getOnClickListener() != null) {
-                    this.setOnClickListener(new OnClickListener() {
-                        @Override
-                        public void onClick(View v) {
-                            if (mCard.getOnClickListener()!=null)
-                                mCard.getOnClickListener().onClick(mCard,v);
-                        }
-                    });
+                    this.setOnClickListener(mGlobalClickDispatcher);
 
                     //Prevent multiple events
                     //if (!mCard.isSwipeable() && mCard.getOnSwipeListener() == null) {
@@ -627,17 +644,9 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
 
                         for (int key:mMultipleOnClickListner.keySet()){
                             View viewClickable= decodeAreaOnClickListener(key);
-                            final Card.OnCardClickListener mListener=mMultipleOnClickListner.get(key);
                             if (viewClickable!=null){
                                 //Add listener to this view
-                                viewClickable.setOnClickListener(new OnClickListener() {
-                                    @Override
-                                    public void onClick(View v) {
-                                        //Callback to card listener
-                                        if (mListener!=null)
-                                            mListener.onClick(mCard,v);
-                                    }
-                                });
+                                viewClickable.setOnClickListener(mPartialClickDispatcher);
 
                                 //Add Selector to this view
                                 if (key > Card.CLICK_LISTENER_ALL_VIEW) {
@@ -657,19 +666,66 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
 
         //LongClick listener
         if(mCard.isLongClickable()){
-            this.setOnLongClickListener(new OnLongClickListener() {
-                @Override
-                public boolean onLongClick(View v) {
-                    if (mCard.getOnLongClickListener()!=null)
-                        return mCard.getOnLongClickListener().onLongClick(mCard,v);
-                    return false;
-                }
-            });
+            this.setOnLongClickListener(mGlobalLongClickDispatcher);
         }else{
             this.setLongClickable(false);
         }
     }
 
+    // -------------------------------------------------------------
+    //  Shared listeners
+    // -------------------------------------------------------------
+
+    private final SwipeDismissViewTouchListener.DismissCallbacks mDismissCallbacks =
+            new SwipeDismissViewTouchListener.DismissCallbacks() {
+        @Override
+        public boolean canDismiss(Card card) {
+            return card.isSwipeable();
+        }
+
+        @Override
+        public void onDismiss(CardViewWrapper cardView, Card card) {
+            final ViewGroup vg = (ViewGroup)(((View)cardView).getParent());
+            if (vg!=null){
+                vg.removeView((View)cardView);
+                card.onSwipeCard();
+            }
+        }
+    };
+
+    private final OnClickListener mGlobalClickDispatcher = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            if (mCard != null && mCard.getOnClickListener() != null)
+                mCard.getOnClickListener().onClick(mCard, v);
+        }
+    };
+
+    private final OnLongClickListener mGlobalLongClickDispatcher = new OnLongClickListener() {
+        @Override
+        public boolean onLongClick(View v) {
+            if (mCard != null && mCard.getOnLongClickListener() != null)
+                return mCard.getOnLongClickListener().onLongClick(mCard, v);
+            return false;
+        }
+    };
+
+    private final OnClickListener mPartialClickDispatcher = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            if (mCard == null || mCard.getMultipleOnClickListener() == null)
+                return;
+            //Callback to card listener
+            for (Map.Entry<Integer, Card.OnCardClickListener> entry : mCard.getMultipleOnClickListener().entrySet()) {
+                if (decodeAreaOnClickListener(entry.getKey()) == v) {
+                    if (entry.getValue() != null)
+                        entry.getValue().onClick(mCard, v);
+                    return;
+                }
+            }
+        }
+    };
+
     /**
      * Reset all partial listeners
      */
@@ -866,16 +922,23 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
          */
         private static void animateExpanding(final ExpandContainerHelper helper) {
 
+            //Inflate the expand area at the first expand
+            helper.getCardView().ensureExpandInnerView();
+
             if (helper.getCardView().getOnExpandListAnimatorListener()!=null){
                 //List Animator
                 helper.getCardView().getOnExpandListAnimatorListener().onExpandStart(helper.getCardView(), helper.contentParent);
             }else{
                 //Std animator
                 helper.contentParent.setVisibility(View.VISIBLE);
+                if (helper.getCardView().mExpandAnimator == null && helper.getCardView().hasExpandAction())
+                    helper.getCardView().createExpandAnimator();
                 if (helper.getCardView().mExpandAnimator != null) {
                     helper.getCardView().mExpandAnimator.addListener(new AnimatorListenerAdapter() {
                         @Override
                         public void onAnimationEnd(Animator animation) {
+                            //The animator is reused by the next expand
+                            animation.removeListener(this);
                             helper.card.setExpanded(true);
                             //Callback
                             if (helper.card.getOnExpandAnimatorEndListener() != null)
@@ -901,9 +964,10 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
                 helper.getCardView().getOnExpandListAnimatorListener().onCollapseStart(helper.getCardView(), helper.contentParent);
             }else{
                 //Std animator
-                int origHeight = helper.contentParent.getHeight();
+                //The expand layout is laid out: its height is free
+                helper.getCardView().getExpandHeightCache().updateExpandHeight(helper.card, helper.contentParent);
 
-                ValueAnimator animator = createSlideAnimator(helper.getCardView(),origHeight, 0);
+                ValueAnimator animator = CardExpandAnimator.createCollapseAnimator(helper.getCardView(), helper.contentParent);
                 animator.addListener(new Animator.AnimatorListener() {
                     @Override
                     public void onAnimationStart(Animator animator) {
@@ -931,25 +995,6 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
         }
 
 
-        /**
-         * Create the Slide Animator invoked when the expand/collapse button is clicked
-         */
-        protected static ValueAnimator createSlideAnimator(final CardViewNative cardView,int start, int end) {
-            ValueAnimator animator = ValueAnimator.ofInt(start, end);
-
-            animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                    int value = (Integer) valueAnimator.getAnimatedValue();
-
-                    ViewGroup.LayoutParams layoutParams = cardView.mInternalExpandLayout.getLayoutParams();
-                    layoutParams.height = value;
-                    cardView.mInternalExpandLayout.setLayoutParams(layoutParams);
-                }
-            });
-            return animator;
-        }
-
     }
 
     /**
@@ -965,20 +1010,66 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
                 if (isForceReplaceInnerLayout() && mInternalExpandLayout!=null && mInternalExpandInnerView!=null)
                     ((ViewGroup)mInternalExpandLayout).removeView(mInternalExpandInnerView);
 
-                mInternalExpandInnerView=mCardExpand.getInnerView(getContext(),(ViewGroup) mInternalExpandLayout);
-            }else{
+                //The inner view is inflated at the first expand
+                mInternalExpandInnerView = null;
+                mExpandInnerViewPending = true;
+            }else if (mInternalExpandInnerView != null){
                 //View can be recycled.
                 //Only setup Inner Elements
                 if (mCardExpand.getInnerLayout()>-1)
                     mCardExpand.setupInnerViewElements((ViewGroup)mInternalExpandLayout,mInternalExpandInnerView);
+            }else{
+                //The recycled view has never been expanded
+                mExpandInnerViewPending = true;
             }
 
             ViewGroup.LayoutParams layoutParams = mInternalExpandLayout.getLayoutParams();
             layoutParams.height = LinearLayout.LayoutParams.WRAP_CONTENT;
             mInternalExpandLayout.setLayoutParams(layoutParams);
+
+            //An expanded card shows the expand area immediately
+            if (mCard.isExpanded())
+                ensureExpandInnerView();
         }
     }
 
+    /**
+     * Inflates the expand inner view, if it has been deferred until the first expand
+     */
+    protected void ensureExpandInnerView() {
+        if (!mExpandInnerViewPending || mInternalExpandLayout == null || mCardExpand == null)
+            return;
+
+        mExpandInnerViewPending = false;
+        mInternalExpandInnerView = mCardExpand.getInnerView(getContext(), (ViewGroup) mInternalExpandLayout);
+
+        //The animator was built with the empty expand area
+        mExpandAnimator = null;
+    }
+
+    /**
+     * Returns the cache of the expand heights.
+     * It is the cache of the list which displays the card, or a cache owned by this view.
+     *
+     * @return
+     */
+    public CardExpandHeightCache getExpandHeightCache() {
+        if (mOnExpandListAnimatorListener instanceof CardExpandHeightCache.Provider)
+            return ((CardExpandHeightCache.Provider) mOnExpandListAnimatorListener).getExpandHeightCache();
+
+        if (mExpandHeightCache == null)
+            mExpandHeightCache = new CardExpandHeightCache(1);
+        return mExpandHeightCache;
+    }
+
+    /**
+     * Measures the expand area, if its height isn't in cache, and creates the expand animator
+     */
+    protected void createExpandAnimator() {
+        int expandHeight = getExpandHeightCache().measureExpandHeight(mCard, mInternalExpandLayout);
+        mExpandAnimator = CardExpandAnimator.createExpandAnimator(this, mInternalExpandLayout, expandHeight);
+    }
+
     public void doToggleExpand() {
 
         if (mInternalExpandLayout != null) {
@@ -1091,7 +1182,17 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
     @Override
     public void changeBackgroundResourceId(int drawableResourceId) {
         if (drawableResourceId!=Card.DEFAULT_COLOR){
-            changeBackgroundResource(getResources().getDrawable(drawableResourceId));
+            if (mOverdrawOptimized) {
+                //Don't replace the drawable if the card uses the same background
+                if (mInternalMainCardLayout != null && mAppliedBackgroundResourceId != drawableResourceId) {
+                    mInternalMainCardLayout.setBackgroundResource(drawableResourceId);
+                    mAppliedBackgroundResourceId = drawableResourceId;
+                    mAppliedBackgroundDrawable = null;
+                    mAppliedBackgroundColorResourceId = Card.DEFAULT_COLOR;
+                }
+            } else {
+                changeBackgroundResource(getResources().getDrawable(drawableResourceId));
+            }
         }
     }
 
@@ -1104,7 +1205,12 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
     public void changeBackgroundResource(Drawable drawableResource) {
         if (drawableResource!=null){
             if (mInternalMainCardLayout!=null){
+                if (mOverdrawOptimized && mAppliedBackgroundDrawable == drawableResource)
+                    return;
                 mHelperImpl.setBackground(mInternalMainCardLayout, drawableResource);
+                mAppliedBackgroundDrawable = drawableResource;
+                mAppliedBackgroundResourceId = Card.DEFAULT_COLOR;
+                mAppliedBackgroundColorResourceId = Card.DEFAULT_COLOR;
             }
         }
     }
@@ -1118,10 +1224,56 @@ public class CardViewNative extends android.support.v7.widget.CardView implement
     public void changeBackgroundColorResourceId(int colorResourceId) {
         if (colorResourceId!=Card.DEFAULT_COLOR){
             //this.setBackgroundDrawable(mHelperImpl.getResourceFromAttrs(getContext(),R.attr.cardBackgroundColor));
-            mInternalMainCardLayout.setBackgroundColor(getResources().getColor(colorResourceId));
+            if (mOverdrawOptimized) {
+                //Don't change the color if the card uses the same background
+                if (mAppliedBackgroundColorResourceId != colorResourceId) {
+                    mInternalMainCardLayout.setBackgroundColor(getResources().getColor(colorResourceId));
+                    mAppliedBackgroundColorResourceId = colorResourceId;
+                    mAppliedBackgroundResourceId = Card.DEFAULT_COLOR;
+                    mAppliedBackgroundDrawable = null;
+                }
+            } else {
+                mInternalMainCardLayout.setBackgroundColor(getResources().getColor(colorResourceId));
+            }
         }
     }
 
+    /**
+     * Forgets the applied backgrounds, when the main layout is replaced
+     */
+    private void resetAppliedBackground() {
+        mAppliedBackgroundResourceId = Card.DEFAULT_COLOR;
+        mAppliedBackgroundDrawable = null;
+        mAppliedBackgroundColorResourceId = Card.DEFAULT_COLOR;
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        //The next bind loads the backgrounds from the new resources
+        resetAppliedBackground();
+    }
+
+    /**
+     * Returns <code>true</code> if the overdraw optimized mode is enabled
+     *
+     * @return
+     */
+    public boolean isOverdrawOptimized() {
+        return mOverdrawOptimized;
+    }
+
+    /**
+     * Enables the overdraw optimized mode.
+     * In this mode the backgrounds of the cards aren't replaced when the recycled view already uses the same background.
+     * You can also use the attr <code>card:card_overdraw_optimized</code>
+     *
+     * @param overdrawOptimized
+     */
+    public void setOverdrawOptimized(boolean overdrawOptimized) {
+        mOverdrawOptimized = overdrawOptimized;
+    }
+
     // -------------------------------------------------------------
     //  Bitmap export
     // -------------------------------------------------------------
@@ -0,0 +1,214 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.view.base;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.LayoutRes;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayDeque;
+
+/**
+ * A pool of pre-inflated rows, keyed by layout resource id.
+ * </p>
+ * The adapters take the rows from the pool before inflating a new row.
+ * Each time a row is taken, the pool is refilled while the main thread is idle,
+ * one row for each idle callback, so that the inflation doesn't happen while the user scrolls.
+ * </p>
+ * Usage:
+ * <pre><code>
+ * CardViewPool pool = new CardViewPool(getActivity());
+ * pool.setMaxSize(R.layout.list_card_layout, 4);
+ * mCardArrayAdapter.setCardViewPool(pool);
+ * </code></pre>
+ * The rows are inflated on the main thread: the card views create animators and listeners
+ * which can't be built in a background thread.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class CardViewPool {
+
+    /**
+     * Default number of rows kept for each layout
+     */
+    public static final int DEFAULT_MAX_SIZE = 3;
+
+    /**
+     * Inflater
+     */
+    protected LayoutInflater mInflater;
+
+    /**
+     * Pooled rows, keyed by layout
+     */
+    protected final SparseArray<ArrayDeque<View>> mViews = new SparseArray<ArrayDeque<View>>();
+
+    /**
+     * Max number of rows, keyed by layout
+     */
+    protected final SparseIntArray mMaxSizes = new SparseIntArray();
+
+    /**
+     * Default max number of rows for each layout
+     */
+    protected int mDefaultMaxSize = DEFAULT_MAX_SIZE;
+
+    /**
+     * Layouts to fill, with the parent used to generate the layout params
+     */
+    private final SparseArray<ViewGroup> mPendingParents = new SparseArray<ViewGroup>();
+
+    private boolean mIdleScheduled = false;
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    public CardViewPool(Context context) {
+        mInflater = LayoutInflater.from(context);
+    }
+
+    // -------------------------------------------------------------
+    // Pool
+    // -------------------------------------------------------------
+
+    /**
+     * Returns a pre-inflated row
+     *
+     * @param layoutId layout of the row
+     * @return the row, or <code>null</code> if the pool is empty
+     */
+    public View obtain(@LayoutRes int layoutId) {
+        ArrayDeque<View> views = mViews.get(layoutId);
+        if (views == null)
+            return null;
+        return views.poll();
+    }
+
+    /**
+     * Schedules the inflation of the rows until the pool for this layout is full.
+     * The rows are inflated when the main thread is idle.
+     * This method has to be called in the main thread.
+     *
+     * @param parent   the parent of the rows, used to generate the layout params
+     * @param layoutId layout of the row
+     */
+    public void prewarm(ViewGroup parent, @LayoutRes int layoutId) {
+        if (parent == null || isFull(layoutId))
+            return;
+
+        mPendingParents.put(layoutId, parent);
+        if (!mIdleScheduled) {
+            mIdleScheduled = true;
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+    }
+
+    /**
+     * Returns the number of rows in the pool for this layout
+     *
+     * @param layoutId layout of the row
+     * @return
+     */
+    public int size(@LayoutRes int layoutId) {
+        ArrayDeque<View> views = mViews.get(layoutId);
+        return views == null ? 0 : views.size();
+    }
+
+    /**
+     * Removes all the rows and the pending inflations
+     */
+    public void clear() {
+        mViews.clear();
+        mPendingParents.clear();
+    }
+
+    private boolean isFull(int layoutId) {
+        return size(layoutId) >= getMaxSize(layoutId);
+    }
+
+    /**
+     * Inflates one row for each idle callback, to keep the main thread responsive
+     */
+    private final MessageQueue.IdleHandler mIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            while (mPendingParents.size() > 0) {
+                int layoutId = mPendingParents.keyAt(0);
+                if (isFull(layoutId)) {
+                    mPendingParents.removeAt(0);
+                    continue;
+                }
+
+                View view = mInflater.inflate(layoutId, mPendingParents.valueAt(0), false);
+                ArrayDeque<View> views = mViews.get(layoutId);
+                if (views == null) {
+                    views = new ArrayDeque<View>(getMaxSize(layoutId));
+                    mViews.put(layoutId, views);
+                }
+                views.offer(view);
+                if (isFull(layoutId))
+                    mPendingParents.removeAt(0);
+                break;
+            }
+            mIdleScheduled = mPendingParents.size() > 0;
+            return mIdleScheduled;
+        }
+    };
+
+    // -------------------------------------------------------------
+    //  Getters and Setters
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the max number of rows kept for this layout
+     *
+     * @param layoutId layout of the row
+     * @return
+     */
+    public int getMaxSize(@LayoutRes int layoutId) {
+        return mMaxSizes.get(layoutId, mDefaultMaxSize);
+    }
+
+    /**
+     * Sets the max number of rows kept for this layout.
+     * Use a value for each view type of the adapter.
+     *
+     * @param layoutId layout of the row
+     * @param maxSize  max number of rows
+     */
+    public void setMaxSize(@LayoutRes int layoutId, int maxSize) {
+        mMaxSizes.put(layoutId, maxSize);
+    }
+
+    /**
+     * Sets the max number of rows kept for the layouts without a specific size
+     *
+     * @param maxSize max number of rows
+     */
+    public void setDefaultMaxSize(int maxSize) {
+        mDefaultMaxSize = maxSize;
+    }
+}
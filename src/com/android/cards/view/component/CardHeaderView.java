@@ -23,7 +23,7 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
-import android.view.MenuInflater;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
@@ -141,6 +141,11 @@ public class CardHeaderView extends FrameLayout implements CardViewInterface {
      */
     protected PopupMenu mPopupMenu;
 
+    /**
+     * <code>true</code> if {@link #mPopupMenu} contains the items of the current card
+     */
+    protected boolean mPopupMenuPrepared = false;
+
     protected CardViewHelper mHelperImpl;
 
     //--------------------------------------------------------------------------
@@ -263,7 +268,9 @@ public class CardHeaderView extends FrameLayout implements CardViewInterface {
             visibilityButtonHelper(VISIBLE, GONE, GONE);
 
             addPopup();
-            if (mPopupMenu==null && mCardHeader.getCustomOverflowAnimation() != null) {
+            //The menu built by a PopupMenuPrepareListener wins over the animation, as before the lazy menu
+            if (mCardHeader.getPopupMenuPrepareListener() == null
+                    && mCardHeader.getCustomOverflowAnimation() != null) {
                 addCustomOverflowAnimation();
             }
 
@@ -385,46 +392,36 @@ public class CardHeaderView extends FrameLayout implements CardViewInterface {
     }
 
     /**
-     * Adds Popup menu
+     * Adds Popup menu.
+     * </p>
+     * The PopupMenu is built when the overflow button is tapped.
+     * It is built here only if the header has a {@link CardHeader.OnPrepareCardHeaderPopupMenuListener}
+     * without a {@link CardHeader.OnCheckCardHeaderPopupMenuVisibilityListener}, because the
+     * menu has to be prepared to know if the button is visible.
      */
     protected void addPopup() {
 
         //To prevent recycle
-        mPopupMenu = null;
+        mPopupMenuPrepared = false;
 
         if (mImageButtonOverflow != null) {
 
             // allow dynamic customization on popup menu
             boolean prepareMenu = mCardHeader.getPopupMenu() > CardHeader.NO_POPUP_MENU ? true : false;
-            if (mCardHeader.getPopupMenuPrepareListener() != null) {
+            if (mCardHeader.getPopupMenuVisibilityListener() != null) {
 
-                //Build the popupMenu
-                mPopupMenu = _buildPopupMenu();
+                //Cheap check, the menu is built and prepared in onClick()
+                prepareMenu = mCardHeader.getPopupMenuVisibilityListener().isPopupMenuVisible(mCardHeader.getParentCard());
 
-                //Dynamic customization
-                prepareMenu = mCardHeader.getPopupMenuPrepareListener().onPreparePopupMenu(mCardHeader.getParentCard(), mPopupMenu);
+            } else if (mCardHeader.getPopupMenuPrepareListener() != null) {
 
-                //Check if the menu has visible items
-                if (mPopupMenu.getMenu()==null || !mPopupMenu.getMenu().hasVisibleItems())
-                    prepareMenu = false;
+                //Build and prepare the popupMenu to check if the menu has visible items
+                prepareMenu = _preparePopupMenu();
             }
 
             if (prepareMenu) {
                 //Add a PopupMenu and its listener
-                mImageButtonOverflow.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        if (mPopupMenu==null){
-                            //It is null if the PopupMenuPrepareListener is null
-                            //PopupMenu is built inside onClick() method to avoid building the menu when it is not necessary
-                            mPopupMenu = _buildPopupMenu();
-                        }
-                        if (mPopupMenu!=null) {
-                            mPopupMenu.show();
-                            mImageButtonOverflow.setSelected(true);
-                        }
-                    }
-                });
+                mImageButtonOverflow.setOnClickListener(mOverflowClickListener);
             } else {
                 if (mCardHeader.getCustomOverflowAnimation()==null) {
                     mImageButtonOverflow.setVisibility(GONE);
@@ -437,18 +434,64 @@ public class CardHeaderView extends FrameLayout implements CardViewInterface {
         }
     }
 
+    /**
+     * Listener shared by all the cards bound to this view.
+     * PopupMenu is built inside onClick() method to avoid building the menu when it is not necessary
+     */
+    private final View.OnClickListener mOverflowClickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            if (mCardHeader == null)
+                return;
+
+            if (!mPopupMenuPrepared && !_preparePopupMenu())
+                return;
+
+            mPopupMenu.show();
+            mImageButtonOverflow.setSelected(true);
+        }
+    };
 
     /**
-     * Build the menu
+     * Fills the popup menu for the current card and calls the PopupMenuPrepareListener.
+     *
+     * @return <code>true</code> if the menu has to be displayed
+     */
+    private boolean _preparePopupMenu() {
+
+        if (mPopupMenu == null)
+            mPopupMenu = _buildPopupMenu();
+
+        //Copy the items from the cached template, instead of inflating the menu xml
+        Menu menu = mPopupMenu.getMenu();
+        menu.clear();
+        if (mCardHeader.getPopupMenu() > CardHeader.NO_POPUP_MENU) {
+            PopupMenuTemplate.get(getContext(), mCardHeader.getPopupMenu()).populate(getResources(), menu);
+        }
+        mPopupMenuPrepared = true;
+
+        if (mCardHeader.getPopupMenuPrepareListener() != null) {
+
+            //Dynamic customization
+            if (!mCardHeader.getPopupMenuPrepareListener().onPreparePopupMenu(mCardHeader.getParentCard(), mPopupMenu))
+                return false;
+
+            //Check if the menu has visible items
+            return menu.hasVisibleItems();
+        }
+        return true;
+    }
+
+    /**
+     * Build the menu.
+     * The popup is reused by all the cards bound to this view, its items are added
+     * by {@link #_preparePopupMenu()}.
+     *
      * @return
      */
     private PopupMenu _buildPopupMenu(){
 
         PopupMenu popup = new PopupMenu(getContext(), mImageButtonOverflow);
-        if (mCardHeader.getPopupMenu()> CardHeader.NO_POPUP_MENU){
-            MenuInflater inflater = popup.getMenuInflater();
-            inflater.inflate(mCardHeader.getPopupMenu(), popup.getMenu());
-        }
         popup.setOnMenuItemClickListener(new PopupMenu.OnMenuItemClickListener() {
             @Override
             public boolean onMenuItemClick(MenuItem item) {
@@ -19,12 +19,18 @@
 package com.android.cards.view.component;
 
 import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.FrameLayout;
 
+import java.lang.ref.WeakReference;
+
 import com.android.cards.R;
 import com.android.cards.view.base.CardViewInterface;
 
@@ -47,7 +53,8 @@ import com.android.cards.view.base.CardViewInterface;
  *       android:layout_height="wrap_content"/>
  *
  * </code></pre>
- *
+ * With the default layout, the shadow isn't inflated: the component draws the drawable of the card.shadow_image style,
+ * sharing its constant state between all the cards.
  *
  * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
  */
@@ -65,6 +72,33 @@ public class CardShadowView extends FrameLayout implements CardViewInterface {
     /** Global View for this Component */
     protected View mInternalOuterView;
 
+    /**
+     * Shadow drawn by this view, when the default layout is used
+     */
+    protected Drawable mShadowDrawable;
+
+    /**
+     * Height of the drawn shadow
+     */
+    protected int mShadowHeight;
+
+    /**
+     * Constant state of the drawn shadow, shared by all the cards with the same theme and configuration
+     */
+    private static Drawable.ConstantState sShadowState;
+    private static int sShadowHeight;
+
+    /**
+     * Theme and configuration used to read the shared shadow
+     */
+    private static WeakReference<Resources.Theme> sShadowTheme;
+    private static Configuration sShadowConfiguration;
+
+    /**
+     * Attrs of the card.shadow_image style. They must be sorted.
+     */
+    private static final int[] SHADOW_IMAGE_ATTRS = {android.R.attr.layout_height, android.R.attr.src};
+
     //--------------------------------------------------------------------------
     // Constructors
     //--------------------------------------------------------------------------
@@ -125,11 +159,101 @@ public class CardShadowView extends FrameLayout implements CardViewInterface {
      */
     protected void initView() {
 
+        if (card_shadow_layout_resourceID == R.layout.base_shadow_layout) {
+            //Draw the default shadow without inflating a layout
+            initShadowDrawable();
+            if (mShadowDrawable != null) {
+                mInternalOuterView = this;
+                setWillNotDraw(false);
+                return;
+            }
+        }
+
         LayoutInflater inflater = (LayoutInflater) getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
         mInternalOuterView = inflater.inflate(card_shadow_layout_resourceID,this,true);
 
      }
 
+    /**
+     * Retrieves the shadow from the card.shadow_image style.
+     * The style is read once for each theme and configuration, then the constant state is shared.
+     */
+    protected void initShadowDrawable() {
+        Resources.Theme theme = getContext().getTheme();
+        Configuration configuration = getResources().getConfiguration();
+        if (sShadowTheme == null || sShadowTheme.get() != theme || !configuration.equals(sShadowConfiguration)) {
+            sShadowTheme = new WeakReference<Resources.Theme>(theme);
+            sShadowConfiguration = new Configuration(configuration);
+            sShadowState = null;
+            sShadowHeight = 0;
+
+            TypedArray a = getContext().obtainStyledAttributes(R.style.card_shadow_image, SHADOW_IMAGE_ATTRS);
+            try {
+                sShadowHeight = a.getDimensionPixelSize(0, 0);
+                Drawable drawable = a.getDrawable(1);
+                if (drawable != null)
+                    sShadowState = drawable.getConstantState();
+            } finally {
+                a.recycle();
+            }
+        }
+
+        if (sShadowState != null) {
+            mShadowDrawable = sShadowState.newDrawable(getResources());
+            mShadowHeight = sShadowHeight;
+        }
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+
+        //The drawn shadow is read again with the new resources
+        if (mInternalOuterView == this) {
+            mShadowDrawable = null;
+            initShadowDrawable();
+            //onSizeChanged isn't called if the size doesn't change
+            updateShadowBounds(getWidth(), getHeight());
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    //--------------------------------------------------------------------------
+    // Draw
+    //--------------------------------------------------------------------------
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mShadowDrawable == null) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+
+        setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                resolveSize(mShadowHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateShadowBounds(w, h);
+    }
+
+    private void updateShadowBounds(int w, int h) {
+        if (mShadowDrawable != null) {
+            mShadowDrawable.setBounds(getPaddingLeft(), getPaddingTop(),
+                    w - getPaddingRight(), h - getPaddingBottom());
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mShadowDrawable != null)
+            mShadowDrawable.draw(canvas);
+    }
+
     //--------------------------------------------------------------------------
     // Getters and Setters
     //--------------------------------------------------------------------------
@@ -0,0 +1,264 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.view.component;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.XmlResourceParser;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.SubMenu;
+import android.view.View;
+import android.widget.PopupMenu;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+
+/**
+ * Inflated copy of a menu resource.
+ * </p>
+ * The menu xml is parsed only once for each resource id, then each PopupMenu is filled
+ * copying the items. The exclusive checkable groups, which a MenuItem doesn't expose,
+ * are read from the <code>checkableBehavior</code> attribute of the groups in the xml.
+ * It keeps only plain values and drawable constant states, not the context used to inflate it.
+ * A template is inflated again when the configuration changes (for example the locale),
+ * so titles and icons match the current resources.
+ * </p>
+ * Copied attributes: group, id, order, title, condensed title, checkable and checked state,
+ * exclusive checkable groups (<code>checkableBehavior="single"</code>), enabled, visible, icon,
+ * intent, shortcuts and sub menus.
+ * <code>showAsAction</code> and <code>actionLayout</code>/<code>actionViewClass</code> are not copied:
+ * they can't be read from a MenuItem, and a PopupMenu doesn't show action views.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+final class PopupMenuTemplate {
+
+    private static final String TAG = PopupMenuTemplate.class.getSimpleName();
+
+    private static final String ANDROID_NS = "http://schemas.android.com/apk/res/android";
+
+    /**
+     * Value of <code>checkableBehavior="single"</code>
+     */
+    private static final int CHECKABLE_BEHAVIOR_SINGLE = 2;
+
+    /**
+     * Templates, using the menu resource id as key
+     */
+    private static final SparseArray<PopupMenuTemplate> sTemplates = new SparseArray<PopupMenuTemplate>();
+
+    /**
+     * Configuration used to inflate the template
+     */
+    private final Configuration mConfiguration;
+
+    private final Items mItems;
+
+    /**
+     * Groups with <code>checkableBehavior="single"</code>
+     */
+    private final int[] mExclusiveGroups;
+
+    private PopupMenuTemplate(Configuration configuration, Menu menu, int[] exclusiveGroups) {
+        mConfiguration = new Configuration(configuration);
+        mItems = new Items(menu);
+        mExclusiveGroups = exclusiveGroups;
+    }
+
+    /**
+     * Returns the template for the menu resource, inflating it the first time.
+     * It has to be called from the main thread.
+     *
+     * @param context
+     * @param menuRes  menu resource id
+     * @return the template
+     */
+    static PopupMenuTemplate get(Context context, int menuRes) {
+        Configuration configuration = context.getResources().getConfiguration();
+        PopupMenuTemplate template = sTemplates.get(menuRes);
+        if (template == null || !template.mConfiguration.equals(configuration)) {
+            PopupMenu popup = new PopupMenu(context, new View(context));
+            popup.getMenuInflater().inflate(menuRes, popup.getMenu());
+            template = new PopupMenuTemplate(configuration, popup.getMenu(),
+                    findExclusiveGroups(context.getResources(), menuRes));
+            sTemplates.put(menuRes, template);
+        }
+        return template;
+    }
+
+    /**
+     * Adds the items of the template to the menu
+     *
+     * @param resources resources used to create icons
+     * @param menu      menu to fill
+     */
+    void populate(Resources resources, Menu menu) {
+        populate(resources, menu, mItems, mExclusiveGroups);
+    }
+
+    private static void populate(Resources resources, Menu menu, Items items, int[] exclusiveGroups) {
+        MenuItem[] menuItems = new MenuItem[items.mItems.length];
+        for (int i = 0; i < menuItems.length; i++) {
+            Item item = items.mItems[i];
+            MenuItem menuItem;
+            if (item.mSubItems != null) {
+                SubMenu subMenu = menu.addSubMenu(item.mGroupId, item.mItemId, item.mOrder, item.mTitle);
+                populate(resources, subMenu, item.mSubItems, exclusiveGroups);
+                menuItem = subMenu.getItem();
+            } else {
+                menuItem = menu.add(item.mGroupId, item.mItemId, item.mOrder, item.mTitle);
+            }
+            menuItem.setTitleCondensed(item.mTitleCondensed);
+            menuItem.setCheckable(item.mCheckable);
+            menuItem.setEnabled(item.mEnabled);
+            menuItem.setVisible(item.mVisible);
+            menuItem.setIntent(item.mIntent != null ? new Intent(item.mIntent) : null);
+            menuItem.setShortcut(item.mNumericShortcut, item.mAlphabeticShortcut);
+            if (item.mIcon != null)
+                menuItem.setIcon(item.mIcon.newDrawable(resources));
+            menuItems[i] = menuItem;
+        }
+
+        //It does nothing for the groups which aren't in this menu
+        for (int groupId : exclusiveGroups) {
+            menu.setGroupCheckable(groupId, true, true);
+        }
+
+        //Checked states are set when the groups are exclusive, so they don't uncheck each other
+        for (int i = 0; i < menuItems.length; i++) {
+            if (items.mItems[i].mChecked)
+                menuItems[i].setChecked(true);
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Items
+    // -------------------------------------------------------------
+
+    /**
+     * Items of a menu or of a sub menu
+     */
+    private static class Items {
+
+        final Item[] mItems;
+
+        Items(Menu menu) {
+            mItems = new Item[menu.size()];
+            for (int i = 0; i < mItems.length; i++) {
+                mItems[i] = new Item(menu.getItem(i));
+            }
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Exclusive groups
+    // -------------------------------------------------------------
+
+    /**
+     * Reads the groups with <code>checkableBehavior="single"</code> from the menu xml,
+     * sub menus included.
+     *
+     * @param resources
+     * @param menuRes   menu resource id
+     * @return the ids of the groups
+     */
+    private static int[] findExclusiveGroups(Resources resources, int menuRes) {
+        SparseBooleanArray groups = new SparseBooleanArray();
+        XmlResourceParser parser = resources.getXml(menuRes);
+        try {
+            int eventType = parser.getEventType();
+            while (eventType != XmlPullParser.END_DOCUMENT) {
+                if (eventType == XmlPullParser.START_TAG && "group".equals(parser.getName())
+                        && parser.getAttributeIntValue(ANDROID_NS, "checkableBehavior", 0) == CHECKABLE_BEHAVIOR_SINGLE) {
+                    int groupId = parser.getAttributeResourceValue(ANDROID_NS, "id", Menu.NONE);
+                    if (groupId != Menu.NONE)
+                        groups.put(groupId, true);
+                }
+                eventType = parser.next();
+            }
+        } catch (XmlPullParserException e) {
+            Log.e(TAG, "Error parsing the menu " + menuRes, e);
+        } catch (IOException e) {
+            Log.e(TAG, "Error parsing the menu " + menuRes, e);
+        } finally {
+            parser.close();
+        }
+
+        int[] groupIds = new int[groups.size()];
+        for (int i = 0; i < groupIds.length; i++) {
+            groupIds[i] = groups.keyAt(i);
+        }
+        return groupIds;
+    }
+
+    // -------------------------------------------------------------
+    // Item
+    // -------------------------------------------------------------
+
+    private static class Item {
+
+        final int mGroupId;
+        final int mItemId;
+        final int mOrder;
+        final CharSequence mTitle;
+        final CharSequence mTitleCondensed;
+        final boolean mCheckable;
+        final boolean mChecked;
+        final boolean mEnabled;
+        final boolean mVisible;
+        final Intent mIntent;
+        final char mAlphabeticShortcut;
+        final char mNumericShortcut;
+        final Drawable.ConstantState mIcon;
+        final Items mSubItems;
+
+        Item(MenuItem menuItem) {
+            mGroupId = menuItem.getGroupId();
+            mItemId = menuItem.getItemId();
+            mOrder = menuItem.getOrder();
+            mTitle = menuItem.getTitle();
+            mTitleCondensed = menuItem.getTitleCondensed();
+            mCheckable = menuItem.isCheckable();
+            mChecked = menuItem.isChecked();
+            mEnabled = menuItem.isEnabled();
+            mVisible = menuItem.isVisible();
+            mIntent = menuItem.getIntent();
+            mAlphabeticShortcut = menuItem.getAlphabeticShortcut();
+            mNumericShortcut = menuItem.getNumericShortcut();
+
+            Drawable icon = menuItem.getIcon();
+            mIcon = icon != null ? icon.getConstantState() : null;
+
+            if (menuItem.hasSubMenu()) {
+                mSubItems = new Items(menuItem.getSubMenu());
+            } else {
+                mSubItems = null;
+            }
+        }
+    }
+}
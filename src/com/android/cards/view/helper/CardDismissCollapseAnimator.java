@@ -0,0 +1,379 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.view.helper;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.AdapterView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+
+/**
+ * Closes the gaps left by the dismissed rows of a list.
+ * </p>
+ * The dismissed rows keep their height: the rows below them are translated up,
+ * so the list isn't laid out during the animation.
+ * All the running collapses are applied together, once per frame, before the list is drawn.
+ * When all the animations end, the caller removes the items from the adapter, with a single
+ * layout pass, and calls {@link #reset()}.
+ * </p>
+ * The rows below the list bottom aren't laid out: when translating the rows up would reveal them,
+ * the dismissed row is shrunk on each frame instead, and the list lays out the rows below.
+ * </p>
+ * The dismissed rows have to be already hidden, for example faded out by the swipe.
+ * </p>
+ * A scroll moves the rows under the translations: the running collapses end when the list scrolls,
+ * and you can end them earlier with {@link #cancel()}.
+ * Rows which leave the list while they are translated are restored.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public class CardDismissCollapseAnimator {
+
+    private final ViewGroup mList;
+    private long mDuration;
+
+    /**
+     * Dismissed rows and the height collapsed until now
+     */
+    private final ArrayList<Collapse> mCollapses = new ArrayList<Collapse>();
+
+    /**
+     * Dismissed rows, which aren't translated
+     */
+    private final HashSet<View> mDismissedViews = new HashSet<View>();
+
+    /**
+     * Rows translated by this animator
+     */
+    private final HashSet<View> mTranslatedViews = new HashSet<View>();
+
+    /**
+     * Running animations
+     */
+    private final ArrayList<Animator> mAnimators = new ArrayList<Animator>();
+
+    /**
+     * Indicates if a collapse changed since the last frame
+     */
+    private boolean mDirty = false;
+
+    /**
+     * Observer which runs {@link #mPreDrawListener}, <code>null</code> if it isn't registered
+     */
+    private ViewTreeObserver mObserver;
+
+    /**
+     * Scroll position of the list when the collapses started
+     */
+    private int mFirstPosition;
+    private int mFirstTop;
+
+    private static final Comparator<Collapse> TOP_COMPARATOR = new Comparator<Collapse>() {
+        @Override
+        public int compare(Collapse lhs, Collapse rhs) {
+            return lhs.view.getTop() - rhs.view.getTop();
+        }
+    };
+
+    // -------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------
+
+    /**
+     * Constructor
+     *
+     * @param list     the list which contains the rows
+     * @param duration duration of each collapse
+     */
+    public CardDismissCollapseAnimator(ViewGroup list, long duration) {
+        mList = list;
+        mDuration = duration;
+    }
+
+    // -------------------------------------------------------------
+    // Collapse
+    // -------------------------------------------------------------
+
+    /**
+     * Starts to close the gap of a dismissed row
+     *
+     * @param dismissView the dismissed row, a direct child of the list
+     * @param listener    listener invoked when the gap is closed
+     */
+    public void collapse(View dismissView, Animator.AnimatorListener listener) {
+        if (mCollapses.isEmpty())
+            startFrames();
+
+        final Collapse collapse = new Collapse(dismissView, revealsHiddenRows(dismissView.getHeight()));
+        mCollapses.add(collapse);
+        mDismissedViews.add(dismissView);
+
+        ValueAnimator animator = ValueAnimator.ofInt(0, dismissView.getHeight()).setDuration(mDuration);
+        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator valueAnimator) {
+                collapse.collapsed = (Integer) valueAnimator.getAnimatedValue();
+                if (collapse.resize) {
+                    //A layout pass on each frame: the list lays out the rows below
+                    ViewGroup.LayoutParams layoutParams = collapse.view.getLayoutParams();
+                    layoutParams.height = Math.max(collapse.height - collapse.collapsed, 1);
+                    collapse.view.setLayoutParams(layoutParams);
+                } else {
+                    //The translations are applied once for all the collapses, before the next draw
+                    mDirty = true;
+                    mList.invalidate();
+                }
+            }
+        });
+        animator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                mAnimators.remove(animation);
+            }
+        });
+        if (listener != null)
+            animator.addListener(listener);
+        mAnimators.add(animator);
+        animator.start();
+    }
+
+    /**
+     * Ends the running animations, so their listeners remove the dismissed items at once.
+     * It is called when the list scrolls.
+     */
+    public void cancel() {
+        if (mAnimators.isEmpty())
+            return;
+        //The listeners remove the animators
+        for (Animator animator : new ArrayList<Animator>(mAnimators)) {
+            animator.end();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if translating the rows up by the height would show the space
+     * of rows which are below the list bottom and aren't laid out
+     */
+    private boolean revealsHiddenRows(int height) {
+        int collapsing = height;
+        for (int i = 0; i < mCollapses.size(); i++) {
+            if (!mCollapses.get(i).resize)
+                collapsing += mCollapses.get(i).height;
+        }
+
+        int lastBottom = 0;
+        for (int i = 0; i < mList.getChildCount(); i++) {
+            lastBottom = Math.max(lastBottom, mList.getChildAt(i).getBottom());
+        }
+
+        int visibleBottom = mList.getHeight() - mList.getPaddingBottom();
+        if (lastBottom - collapsing >= visibleBottom)
+            return false;
+
+        if (mList instanceof AdapterView) {
+            AdapterView<?> adapterView = (AdapterView<?>) mList;
+            return adapterView.getLastVisiblePosition() < adapterView.getCount() - 1;
+        }
+        //The list is filled to its bottom: there can be other rows
+        return lastBottom >= visibleBottom;
+    }
+
+    // -------------------------------------------------------------
+    // Frames
+    // -------------------------------------------------------------
+
+    private void startFrames() {
+        mFirstPosition = getFirstPosition();
+        mFirstTop = mList.getChildCount() > 0 ? mList.getChildAt(0).getTop() : 0;
+
+        if (mObserver == null) {
+            mObserver = mList.getViewTreeObserver();
+            mObserver.addOnPreDrawListener(mPreDrawListener);
+        }
+    }
+
+    private void stopFrames() {
+        if (mObserver == null)
+            return;
+        if (mObserver.isAlive())
+            mObserver.removeOnPreDrawListener(mPreDrawListener);
+        else
+            mList.getViewTreeObserver().removeOnPreDrawListener(mPreDrawListener);
+        mObserver = null;
+    }
+
+    private final ViewTreeObserver.OnPreDrawListener mPreDrawListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            if (mCollapses.isEmpty())
+                return true;
+
+            if (isScrolled()) {
+                //Skip this frame: the items are removed and the list is laid out again
+                cancel();
+                return false;
+            }
+
+            if (mDirty) {
+                mDirty = false;
+                applyTranslations();
+            }
+            return true;
+        }
+    };
+
+    /**
+     * Returns <code>true</code> if the list scrolled since the collapses started
+     */
+    private boolean isScrolled() {
+        if (mList.getChildCount() == 0)
+            return false;
+        return getFirstPosition() != mFirstPosition || mList.getChildAt(0).getTop() != mFirstTop;
+    }
+
+    private int getFirstPosition() {
+        if (mList instanceof AdapterView)
+            return ((AdapterView<?>) mList).getFirstVisiblePosition();
+        return 0;
+    }
+
+    /**
+     * Translates each row by the height collapsed above it.
+     * The rows are ordered by top, so the collapses are walked once for all the rows.
+     */
+    private void applyTranslations() {
+        //Restore the rows recycled by the list while they were translated
+        for (Iterator<View> iterator = mTranslatedViews.iterator(); iterator.hasNext(); ) {
+            View view = iterator.next();
+            if (view.getParent() != mList) {
+                view.setTranslationY(0);
+                iterator.remove();
+            }
+        }
+
+        Collections.sort(mCollapses, TOP_COMPARATOR);
+
+        int next = 0;
+        int translation = 0;
+        for (int i = 0; i < mList.getChildCount(); i++) {
+            View child = mList.getChildAt(i);
+            int top = child.getTop();
+
+            while (next < mCollapses.size() && mCollapses.get(next).view.getTop() < top) {
+                Collapse collapse = mCollapses.get(next);
+                //A shrunk row already moves the rows below
+                if (!collapse.resize)
+                    translation -= collapse.collapsed;
+                next++;
+            }
+
+            if (mDismissedViews.contains(child)
+                    || (translation == 0 && child.getTranslationY() == 0))
+                continue;
+
+            child.setTranslationY(translation);
+            mTranslatedViews.add(child);
+        }
+    }
+
+    /**
+     * Forgets the dismissed rows.
+     * Call it after the items are removed from the adapter: the translations are removed
+     * when the rows are laid out in their new positions.
+     */
+    public void reset() {
+        stopFrames();
+        mDirty = false;
+
+        //The shrunk rows are recycled with their height
+        for (int i = 0; i < mCollapses.size(); i++) {
+            Collapse collapse = mCollapses.get(i);
+            if (collapse.resize) {
+                ViewGroup.LayoutParams layoutParams = collapse.view.getLayoutParams();
+                layoutParams.height = collapse.originalLayoutHeight;
+                collapse.view.setLayoutParams(layoutParams);
+            }
+        }
+        mCollapses.clear();
+        mDismissedViews.clear();
+        if (mTranslatedViews.isEmpty())
+            return;
+
+        final ArrayList<View> translatedViews = new ArrayList<View>(mTranslatedViews);
+        mTranslatedViews.clear();
+
+        final ViewTreeObserver observer = mList.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (observer.isAlive())
+                    observer.removeOnPreDrawListener(this);
+                else
+                    mList.getViewTreeObserver().removeOnPreDrawListener(this);
+
+                for (View view : translatedViews) {
+                    view.setTranslationY(0);
+                }
+                return true;
+            }
+        });
+    }
+
+    // -------------------------------------------------------------
+    // Getters and Setters
+    // -------------------------------------------------------------
+
+    public long getDuration() {
+        return mDuration;
+    }
+
+    public void setDuration(long duration) {
+        mDuration = duration;
+    }
+
+    private static class Collapse {
+
+        final View view;
+        final int height;
+        final int originalLayoutHeight;
+
+        /**
+         * Indicates if the row is shrunk instead of translating the rows below
+         */
+        final boolean resize;
+
+        int collapsed;
+
+        Collapse(View view, boolean resize) {
+            this.view = view;
+            this.height = view.getHeight();
+            this.originalLayoutHeight = view.getLayoutParams().height;
+            this.resize = resize;
+        }
+    }
+}
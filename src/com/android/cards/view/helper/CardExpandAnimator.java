@@ -0,0 +1,331 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.view.helper;
+
+import android.animation.Animator;
+import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.AdapterView;
+
+import java.util.ArrayList;
+
+/**
+ * Builds the expand/collapse animators.
+ * </p>
+ * The height of the expand layout is changed only once: the expand animator lays it out
+ * with its final height when it starts, the collapse animator hides it when it ends.
+ * Between these two layout passes each frame only changes draw properties:
+ * <ul>
+ * <li>the row, the direct child of the container which contains the expand layout, is clipped to the revealed height</li>
+ * <li>the siblings below the row are translated by the hidden height</li>
+ * </ul>
+ * </p>
+ * Clip bounds require API 18. On older devices the animators change the height
+ * of the expand layout on each frame.
+ * </p>
+ * The rows below the container bottom aren't laid out until the collapse ends: when the collapse would
+ * reveal them, the collapse animator changes the height of the expand layout on each frame too.
+ * The same happens when the expanded row reaches the container bottom, because the list scrolls
+ * during the expand and the rows it lays out wouldn't be translated.
+ * </p>
+ * The value of the animators is the revealed height of the expand layout.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public final class CardExpandAnimator {
+
+    private CardExpandAnimator() {
+    }
+
+    /**
+     * Returns <code>true</code> if the animators can avoid the layout pass on each frame
+     *
+     * @return
+     */
+    public static boolean isLayoutFree() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    /**
+     * Creates the animator which reveals the expand layout
+     *
+     * @param row             the row inside the list, or the card when it isn't in a list
+     * @param expandingLayout the expand layout
+     * @param expandHeight    measured height of the expand layout
+     * @return the animator
+     */
+    public static ValueAnimator createExpandAnimator(View row, final View expandingLayout, int expandHeight) {
+        ValueAnimator animator = ValueAnimator.ofInt(0, expandHeight);
+        if (!isLayoutFree()) {
+            animator.addUpdateListener(new HeightUpdater(expandingLayout));
+            return animator;
+        }
+
+        SlideUpdater updater = new SlideUpdater(row, expandingLayout, expandHeight, true);
+        animator.addUpdateListener(updater);
+        animator.addListener(updater);
+        return animator;
+    }
+
+    /**
+     * Creates the animator which hides the expand layout.
+     * The expand layout is <code>GONE</code> when the animation ends.
+     *
+     * @param row             the row inside the list, or the card when it isn't in a list
+     * @param expandingLayout the expand layout
+     * @return the animator
+     */
+    public static ValueAnimator createCollapseAnimator(View row, final View expandingLayout) {
+        int expandHeight = expandingLayout.getHeight();
+        ValueAnimator animator = ValueAnimator.ofInt(expandHeight, 0);
+        if (!isLayoutFree()) {
+            animator.addUpdateListener(new HeightUpdater(expandingLayout));
+            return animator;
+        }
+
+        SlideUpdater updater = new SlideUpdater(row, expandingLayout, expandHeight, false);
+        animator.addUpdateListener(updater);
+        animator.addListener(updater);
+        return animator;
+    }
+
+    /**
+     * Creates an animator which changes the height of the view on each frame
+     *
+     * @param view  the view
+     * @param start start height
+     * @param end   end height
+     * @return the animator
+     */
+    public static ValueAnimator createHeightAnimator(View view, int start, int end) {
+        ValueAnimator animator = ValueAnimator.ofInt(start, end);
+        animator.addUpdateListener(new HeightUpdater(view));
+        return animator;
+    }
+
+    // -------------------------------------------------------------
+    // Updaters
+    // -------------------------------------------------------------
+
+    /**
+     * Changes the height of the expand layout on each frame
+     */
+    private static class HeightUpdater implements ValueAnimator.AnimatorUpdateListener {
+
+        private final View mExpandingLayout;
+
+        private HeightUpdater(View expandingLayout) {
+            mExpandingLayout = expandingLayout;
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator valueAnimator) {
+            setHeight(mExpandingLayout, (Integer) valueAnimator.getAnimatedValue());
+        }
+    }
+
+    private static void setHeight(View view, int height) {
+        ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+        layoutParams.height = height;
+        view.setLayoutParams(layoutParams);
+    }
+
+    /**
+     * Clips the row and translates its siblings on each frame
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static class SlideUpdater implements ValueAnimator.AnimatorUpdateListener, Animator.AnimatorListener {
+
+        private final View mRow;
+        private final View mExpandingLayout;
+        private final int mExpandHeight;
+        private final boolean mExpand;
+
+        private final ArrayList<View> mSiblings = new ArrayList<View>();
+        private final Rect mClipBounds = new Rect();
+
+        /**
+         * Height of the row without the expand layout
+         */
+        private int mBaseHeight;
+        private boolean mStarted = false;
+
+        /**
+         * Indicates if the height changes on each frame: the collapse reveals rows not laid out yet,
+         * or the expanded row reaches the bottom and the list scrolls
+         */
+        private boolean mLayoutPerFrame = false;
+
+        private SlideUpdater(View row, View expandingLayout, int expandHeight, boolean expand) {
+            mRow = row;
+            mExpandingLayout = expandingLayout;
+            mExpandHeight = expandHeight;
+            mExpand = expand;
+        }
+
+        /**
+         * Collects the siblings and, when expanding, lays out the expand layout with its final height.
+         * It is called by the first update, which can run before onAnimationStart.
+         */
+        private void begin() {
+            mStarted = true;
+
+            mBaseHeight = mExpand ? mRow.getHeight() : mRow.getHeight() - mExpandHeight;
+
+            mSiblings.clear();
+            mLayoutPerFrame = false;
+            if (mRow.getParent() instanceof ViewGroup) {
+                ViewGroup container = (ViewGroup) mRow.getParent();
+                int rowBottom = mRow.getBottom();
+                int lastBottom = rowBottom;
+                for (int i = 0; i < container.getChildCount(); i++) {
+                    View child = container.getChildAt(i);
+                    if (child != mRow && child.getTop() >= rowBottom) {
+                        mSiblings.add(child);
+                        lastBottom = Math.max(lastBottom, child.getBottom());
+                    }
+                }
+
+                int visibleBottom = container.getHeight() - container.getPaddingBottom();
+                if (mExpand ? rowBottom + mExpandHeight > visibleBottom : revealsHiddenRows(container, lastBottom)) {
+                    mLayoutPerFrame = true;
+                    mSiblings.clear();
+                }
+            }
+
+            if (mExpand && mLayoutPerFrame) {
+                mExpandingLayout.setVisibility(View.VISIBLE);
+            } else if (mExpand) {
+                //The only layout pass of the expand animation
+                mExpandingLayout.setVisibility(View.VISIBLE);
+                ViewGroup.LayoutParams layoutParams = mExpandingLayout.getLayoutParams();
+                layoutParams.height = ViewGroup.LayoutParams.WRAP_CONTENT;
+                mExpandingLayout.setLayoutParams(layoutParams);
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if translating the siblings up would show the space
+         * of rows which are below the container bottom and aren't laid out
+         */
+        private boolean revealsHiddenRows(ViewGroup container, int lastBottom) {
+            int visibleBottom = container.getHeight() - container.getPaddingBottom();
+            if (lastBottom - mExpandHeight >= visibleBottom)
+                return false;
+
+            if (container instanceof AdapterView) {
+                AdapterView<?> adapterView = (AdapterView<?>) container;
+                return adapterView.getLastVisiblePosition() < adapterView.getCount() - 1;
+            }
+            //The container is filled to its bottom: there can be other rows
+            return lastBottom >= visibleBottom;
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator valueAnimator) {
+            if (!mStarted)
+                begin();
+
+            int revealed = (Integer) valueAnimator.getAnimatedValue();
+            if (mLayoutPerFrame) {
+                setHeight(mExpandingLayout, revealed);
+                return;
+            }
+
+            //The expand layout is laid out with its full height during the animation
+            float translation = revealed - mExpandHeight;
+            for (int i = mSiblings.size() - 1; i >= 0; i--) {
+                View sibling = mSiblings.get(i);
+                if (sibling.getParent() != mRow.getParent()) {
+                    //Pushed out of the list by the layout pass, and recycled
+                    sibling.setTranslationY(0);
+                    mSiblings.remove(i);
+                } else {
+                    sibling.setTranslationY(translation);
+                }
+            }
+
+            mClipBounds.set(0, 0, mRow.getWidth(), mBaseHeight + revealed);
+            mRow.setClipBounds(mClipBounds);
+        }
+
+        @Override
+        public void onAnimationStart(Animator animator) {
+            if (!mStarted)
+                begin();
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animator) {
+            mStarted = false;
+
+            if (mExpand) {
+                if (mLayoutPerFrame) {
+                    mLayoutPerFrame = false;
+                    setHeight(mExpandingLayout, ViewGroup.LayoutParams.WRAP_CONTENT);
+                }
+                reset();
+            } else {
+                //The only layout pass of the collapse animation.
+                //The siblings are restored when they are laid out in the new position.
+                mExpandingLayout.setVisibility(View.GONE);
+                if (mLayoutPerFrame) {
+                    mLayoutPerFrame = false;
+                    setHeight(mExpandingLayout, ViewGroup.LayoutParams.WRAP_CONTENT);
+                }
+
+                final ViewTreeObserver observer = mRow.getViewTreeObserver();
+                observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                    @Override
+                    public boolean onPreDraw() {
+                        if (observer.isAlive())
+                            observer.removeOnPreDrawListener(this);
+                        else
+                            mRow.getViewTreeObserver().removeOnPreDrawListener(this);
+                        reset();
+                        return true;
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animator) {
+            //onAnimationEnd is called after it, and it lays out the expand layout
+            reset();
+        }
+
+        @Override
+        public void onAnimationRepeat(Animator animator) {
+        }
+
+        private void reset() {
+            for (int i = 0; i < mSiblings.size(); i++) {
+                mSiblings.get(i).setTranslationY(0);
+            }
+            mSiblings.clear();
+            mRow.setClipBounds(null);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.view.helper;
+
+import android.util.LruCache;
+import android.view.View;
+
+import com.android.cards.internal.Card;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Cache of the measured heights of the expand layouts.
+ * </p>
+ * Each list owns its cache (see {@link Provider}), so lists which use the same card ids
+ * don't share heights. A card view which isn't in a list uses its own cache.
+ * </p>
+ * Heights are stored by card id, together with the card and the width used to measure them:
+ * a height measured with a different width, or for another card instance with the same id,
+ * is measured again. Cards without an id are always measured.
+ * </p>
+ * The height is invalidated when a card view binds again the card it shows: this happens with
+ * {@link Card#notifyDataSetChanged()} and when the adapter is notified while the card is visible.
+ * If you change the content of the expand layout of a card which isn't visible, call {@link #invalidate(Card)}.
+ * </p>
+ * The heights belong to the card instances: the cursor adapters create a new card for each bind,
+ * so they reuse the heights only when their card cache is enabled
+ * (see {@link com.android.cards.internal.base.BaseCardCursorAdapter#setCardCacheSize(int)}).
+ * </p>
+ * It has to be used from the main thread.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public final class CardExpandHeightCache {
+
+    /**
+     * Default max number of cards
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    /**
+     * Implemented by the lists which own a cache
+     */
+    public interface Provider {
+
+        /**
+         * Returns the cache used by the cards in the list
+         *
+         * @return
+         */
+        CardExpandHeightCache getExpandHeightCache();
+    }
+
+    /**
+     * Heights, using the card id as key
+     */
+    private final LruCache<String, Entry> mHeights;
+
+    // -------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------
+
+    public CardExpandHeightCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxSize max number of cards
+     */
+    public CardExpandHeightCache(int maxSize) {
+        mHeights = new LruCache<String, Entry>(maxSize);
+    }
+
+    // -------------------------------------------------------------
+    // Heights
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the height of the expand layout, measuring it only if it isn't in cache
+     *
+     * @param card            card
+     * @param expandingLayout expand layout
+     * @return the height
+     */
+    public int measureExpandHeight(Card card, View expandingLayout) {
+        View parent = (View) expandingLayout.getParent();
+        int width = parent.getMeasuredWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+
+        Entry entry = get(card);
+        if (entry != null && entry.mWidth == width)
+            return entry.mHeight;
+
+        final int widthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.AT_MOST);
+        final int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        expandingLayout.measure(widthSpec, heightSpec);
+
+        int height = expandingLayout.getMeasuredHeight();
+        put(card, width, height);
+        return height;
+    }
+
+    /**
+     * Stores the height of an expand layout which is laid out, without measuring it
+     *
+     * @param card            card
+     * @param expandingLayout expand layout
+     */
+    public void updateExpandHeight(Card card, View expandingLayout) {
+        if (card == null || expandingLayout.getVisibility() != View.VISIBLE)
+            return;
+
+        View parent = (View) expandingLayout.getParent();
+        put(card, parent.getMeasuredWidth() - parent.getPaddingLeft() - parent.getPaddingRight(),
+                expandingLayout.getHeight());
+    }
+
+    /**
+     * Returns the entry of the card, removing it if it belongs to another card with the same id
+     */
+    private Entry get(Card card) {
+        if (card == null || card.getId() == null)
+            return null;
+
+        Entry entry = mHeights.get(card.getId());
+        if (entry != null && entry.mCard.get() != card) {
+            mHeights.remove(card.getId());
+            return null;
+        }
+        return entry;
+    }
+
+    private void put(Card card, int width, int height) {
+        //A layout without a width isn't laid out yet
+        if (card != null && card.getId() != null && width > 0)
+            mHeights.put(card.getId(), new Entry(card, width, height));
+    }
+
+    /**
+     * Removes the height of the card, when the content of its expand layout changes
+     *
+     * @param card card
+     */
+    public void invalidate(Card card) {
+        if (card != null && card.getId() != null)
+            mHeights.remove(card.getId());
+    }
+
+    /**
+     * Removes all heights
+     */
+    public void clear() {
+        mHeights.evictAll();
+    }
+
+    /**
+     * Height of a card. The card is weakly referenced, it is only compared with the bound card.
+     */
+    private static class Entry {
+
+        final WeakReference<Card> mCard;
+        final int mWidth;
+        final int mHeight;
+
+        Entry(Card card, int width, int height) {
+            mCard = new WeakReference<Card>(card);
+            mWidth = width;
+            mHeight = height;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * ******************************************************************************
+ *   Copyright (c) 2013-2014 Gabriele Mariotti.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.android.cards.view.helper;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.view.View;
+
+import com.android.cards.internal.Card;
+
+import java.util.ArrayList;
+
+/**
+ * Draws the swiped views in a hardware layer.
+ * </p>
+ * During a swipe the view is only translated and faded: with a hardware layer its content
+ * is rendered once, instead of on each frame.
+ * The layer is removed when the view is released, with {@link #restore(View)}.
+ * </p>
+ * Views which already have a layer, and cards with
+ * {@link Card#setSwipeHardwareLayerEnabled(boolean)} set to <code>false</code>, are not changed.
+ *
+ * @author Gabriele Mariotti (gabri.mariotti@gmail.com)
+ */
+public final class SwipeLayerHelper {
+
+    /**
+     * Views with a layer set by this helper
+     */
+    private final ArrayList<View> mLayerViews = new ArrayList<View>(2);
+
+    /**
+     * Listeners returned by {@link #restoreOnEnd(View)}, reused when their animation ends
+     */
+    private final ArrayList<RestoreListener> mRestoreListeners = new ArrayList<RestoreListener>(2);
+
+    private boolean mEnabled = true;
+
+    /**
+     * Draws the view in a hardware layer
+     *
+     * @param view view to swipe
+     * @param card card displayed by the view. It can be <code>null</code>
+     */
+    public void promote(View view, Card card) {
+        if (!mEnabled || view == null || mLayerViews.contains(view))
+            return;
+        if (card != null && !card.isSwipeHardwareLayerEnabled())
+            return;
+
+        //Don't override a layer set by the app
+        if (view.getLayerType() != View.LAYER_TYPE_NONE)
+            return;
+
+        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        mLayerViews.add(view);
+    }
+
+    /**
+     * Removes the layer set by {@link #promote(View, Card)}
+     *
+     * @param view
+     */
+    public void restore(View view) {
+        if (mLayerViews.remove(view))
+            view.setLayerType(View.LAYER_TYPE_NONE, null);
+    }
+
+    /**
+     * Returns a listener which removes the layer when the animation of the view ends.
+     * The listener of a view is reused, and the listener of another view is taken over when its
+     * animation has ended: a new one is created only when all of them are animating other views.
+     *
+     * @param view
+     * @return
+     */
+    public Animator.AnimatorListener restoreOnEnd(View view) {
+        RestoreListener listener = null;
+        for (int i = 0; i < mRestoreListeners.size(); i++) {
+            RestoreListener candidate = mRestoreListeners.get(i);
+            if (candidate.mView == view) {
+                listener = candidate;
+                break;
+            }
+            if (!candidate.mRunning && listener == null)
+                listener = candidate;
+        }
+        if (listener == null) {
+            listener = new RestoreListener();
+            mRestoreListeners.add(listener);
+        }
+        listener.mView = view;
+        listener.mRunning = true;
+        return listener;
+    }
+
+    private class RestoreListener extends AnimatorListenerAdapter {
+
+        View mView;
+
+        /**
+         * <code>true</code> from {@link #restoreOnEnd(View)} to the end of the animation
+         */
+        boolean mRunning;
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            //A listener kept by the caller is used again without restoreOnEnd()
+            mRunning = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            mRunning = false;
+            restore(mView);
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Getters and Setters
+    // -------------------------------------------------------------
+
+    /**
+     * Indicates if the swiped views are drawn in a hardware layer
+     *
+     * @return
+     */
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Sets if the swiped views are drawn in a hardware layer
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+}
@@ -20,15 +20,12 @@ package com.android.cards.view.listener;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
-import android.graphics.Rect;
 import android.os.SystemClock;
 import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.view.ViewGroup;
 import android.view.ViewPropertyAnimator;
 import android.widget.AbsListView;
 import android.widget.ListView;
@@ -41,6 +38,9 @@ import com.android.cards.R;
 import com.android.cards.internal.Card;
 import com.android.cards.view.listener.dismiss.Dismissable;
 import com.android.cards.view.CardListView;
+import com.android.cards.view.base.CardViewWrapper;
+import com.android.cards.view.helper.CardDismissCollapseAnimator;
+import com.android.cards.view.helper.SwipeLayerHelper;
 
 /**
  * It is based on Roman Nurik code.
@@ -116,6 +116,22 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
 
     private int swipeDistanceDivisor = 2;
 
+    /**
+     * Scratch point in list coordinates, used by the hit test
+     */
+    private float mListX;
+    private float mListY;
+
+    /**
+     * Hardware layer used while a row is swiped
+     */
+    private final SwipeLayerHelper mLayerHelper = new SwipeLayerHelper();
+
+    /**
+     * Closes the gaps of the dismissed rows
+     */
+    private final CardDismissCollapseAnimator mCollapseAnimator;
+
     /*
      * Custom gesture listener
      */
@@ -158,6 +174,7 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                 android.R.integer.config_shortAnimTime);
         mListView = listView;
         mCallbacks = callbacks;
+        mCollapseAnimator = new CardDismissCollapseAnimator(listView, mAnimationTime);
         swipeDistanceDivisor =  listView.getContext().getResources().getInteger(R.integer.list_card_swipe_distance_divisor);
         if (mListView instanceof CardListView) {
             mGestureDetector = ((CardListView) mListView).getGestureDetector();
@@ -173,6 +190,25 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
         mPaused = !enabled;
     }
 
+    /**
+     * Ends the collapse animations of the dismissed rows when the list starts to scroll,
+     * so the rows aren't recycled while they are translated.
+     * It is called by {@link SwipeOnScrollListener}.
+     */
+    public void onScrollStarted() {
+        mCollapseAnimator.cancel();
+    }
+
+    /**
+     * Sets if the swiped rows are drawn in a hardware layer.
+     * Cards can disable it with {@link Card#setSwipeHardwareLayerEnabled(boolean)}.
+     *
+     * @param enabled
+     */
+    public void setHardwareLayerEnabled(boolean enabled) {
+        mLayerHelper.setEnabled(enabled);
+    }
+
     /**
      * Returns an {@link AbsListView.OnScrollListener} to be added to the {@link
      * ListView} using {@link ListView#setOnScrollListener(AbsListView.OnScrollListener)}.
@@ -218,22 +254,10 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                 // TODO: ensure this is a finger, and set a flag
 
                 // Find the child view that was touched (perform a hit test)
-                Rect rect = new Rect();
-                int childCount = mListView.getChildCount();
-                int headerCount = mListView.getHeaderViewsCount();
-                int footerCount = mListView.getFooterViewsCount();
-                int[] listViewCoords = new int[2];
-                mListView.getLocationOnScreen(listViewCoords);
-                int x = (int) motionEvent.getRawX() - listViewCoords[0];
-                int y = (int) motionEvent.getRawY() - listViewCoords[1];
-                View child=null;
-                for (int i = headerCount; i < (childCount - footerCount); i++) {
-                    child = mListView.getChildAt(i);
-                    child.getHitRect(rect);
-                    if (rect.contains(x, y)) {
-                        mDownView = child;
-                        break;
-                    }
+                if (toListCoordinates(view, motionEvent)) {
+                    mDownView = findChildViewUnder((int) mListX, (int) mListY);
+                } else {
+                    mDownView = null;
                 }
 
                 if (mDownView != null) {
@@ -293,7 +317,7 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                             .translationX(0)
                             .alpha(1)
                             .setDuration(mAnimationTime)
-                            .setListener(null);
+                            .setListener(mLayerHelper.restoreOnEnd(mDownView));
                 }
 
                 mVelocityTracker.recycle();
@@ -322,7 +346,7 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                             .translationX(0)
                             .alpha(1)
                             .setDuration(mAnimationTime)
-                            .setListener(null);
+                            .setListener(mLayerHelper.restoreOnEnd(mDownView));
                 }
                 mVelocityTracker.recycle();
                 mVelocityTracker = null;
@@ -347,15 +371,18 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                     mSwiping = true;
                     mSwipingSlop = (deltaX > 0 ? mSlop : -mSlop);
                     mListView.requestDisallowInterceptTouchEvent(true);
+                    mLayerHelper.promote(mDownView,
+                            mDownView instanceof CardViewWrapper ? ((CardViewWrapper) mDownView).getCard() : null);
 
-                    // Cancel ListView's touch (un-highlighting the item)
-                    MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
-                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
+                    // Cancel ListView's touch (un-highlighting the item).
+                    // The event is changed in place and restored, instead of obtaining a copy
+                    int action = motionEvent.getAction();
+                    motionEvent.setAction(MotionEvent.ACTION_CANCEL |
                             (motionEvent.getActionIndex()
                                     << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
-                    mListView.onTouchEvent(cancelEvent);
-                    view.onTouchEvent(cancelEvent);
-                    cancelEvent.recycle();
+                    mListView.onTouchEvent(motionEvent);
+                    view.onTouchEvent(motionEvent);
+                    motionEvent.setAction(action);
                 }
 
                 if (mSwiping) {
@@ -386,6 +413,7 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                 .setListener(new AnimatorListenerAdapter() {
                     @Override
                     public void onAnimationEnd(Animator animation) {
+                        mLayerHelper.restore(view);
                         performDismiss(view, position);
                     }
                 });
@@ -409,16 +437,13 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
     }
 
     private void performDismiss(final View dismissView, final int dismissPosition) {
-        // Animate the dismissed list item to zero-height and fire the dismiss callback when
-        // all dismissed list item animations have completed. This triggers layout on each animation
-        // frame; in the future we may want to do something smarter and more performant.
+        // Close the gap of the dismissed list item translating the following items, and fire
+        // the dismiss callback when all dismissed list item animations have completed.
+        // The list is laid out only once, when the callback removes the items.
 
-        final ViewGroup.LayoutParams lp = dismissView.getLayoutParams();
-        final int originalHeight = dismissView.getHeight();
-
-        ValueAnimator animator = ValueAnimator.ofInt(originalHeight, 1).setDuration(mAnimationTime);
+        mPendingDismisses.add(new PendingDismissData(dismissPosition, dismissView));
 
-        animator.addListener(new AnimatorListenerAdapter() {
+        mCollapseAnimator.collapse(dismissView, new AnimatorListenerAdapter() {
             @Override
             public void onAnimationEnd(Animator animation) {
                 --mDismissAnimationRefCount;
@@ -433,18 +458,17 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                     }
                     mCallbacks.onDismiss(mListView, dismissPositions);
 
+                    // The following items are translated until the list is laid out again
+                    mCollapseAnimator.reset();
+
                     // Reset mDownPosition to avoid MotionEvent.ACTION_UP trying to start a dismiss
                     // animation with a stale position
                     mDownPosition = ListView.INVALID_POSITION;
 
-                    ViewGroup.LayoutParams lp;
                     for (PendingDismissData pendingDismiss : mPendingDismisses) {
                         // Reset view presentation
                         pendingDismiss.view.setAlpha(1f);
                         pendingDismiss.view.setTranslationX(0);
-                        lp = pendingDismiss.view.getLayoutParams();
-                        lp.height = 0;
-                        pendingDismiss.view.setLayoutParams(lp);
                     }
 
                     // Send a cancel event
@@ -457,17 +481,51 @@ public class SwipeDismissListViewTouchListener implements View.OnTouchListener {
                 }
             }
         });
+    }
 
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                lp.height = (Integer) valueAnimator.getAnimatedValue();
-                dismissView.setLayoutParams(lp);
-            }
-        });
+    /**
+     * Converts the event position to list coordinates, in {@link #mListX} and {@link #mListY}.
+     * The listener can be set on the list and on its rows: the offsets of the views
+     * between the touched view and the list are added, without reading the location on screen.
+     *
+     * @param view        the touched view
+     * @param motionEvent the event
+     * @return <code>false</code> if the view isn't inside the list
+     */
+    private boolean toListCoordinates(View view, MotionEvent motionEvent) {
+        float x = motionEvent.getX();
+        float y = motionEvent.getY();
+        View child = view;
+        while (child != mListView) {
+            if (!(child.getParent() instanceof View))
+                return false;
+            View parent = (View) child.getParent();
+            x += child.getLeft() + child.getTranslationX() - parent.getScrollX();
+            y += child.getTop() + child.getTranslationY() - parent.getScrollY();
+            child = parent;
+        }
+        mListX = x;
+        mListY = y;
+        return true;
+    }
 
-        mPendingDismisses.add(new PendingDismissData(dismissPosition, dismissView));
-        animator.start();
+    /**
+     * Returns the card row under the point, or <code>null</code> for headers, footers and empty space.
+     * It uses the list hit test instead of the hit rects of all the children.
+     *
+     * @param x x coordinate, relative to the list
+     * @param y y coordinate, relative to the list
+     */
+    private View findChildViewUnder(int x, int y) {
+        int position = mListView.pointToPosition(x, y);
+        if (position == ListView.INVALID_POSITION)
+            return null;
+
+        if (position < mListView.getHeaderViewsCount()
+                || position >= mListView.getCount() - mListView.getFooterViewsCount())
+            return null;
+
+        return mListView.getChildAt(position - mListView.getFirstVisiblePosition());
     }
 
     private boolean isSwipeMovementAllowed(float deltaX) {
@@ -27,6 +27,8 @@ import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 
+import com.android.cards.view.helper.SwipeLayerHelper;
+
 /**
  * A {@link android.view.View.OnTouchListener} that makes any {@link android.view.View} dismissable when the
  * user swipes (drags her finger) horizontally across the view.
@@ -78,6 +80,10 @@ public class SwipeDismissTopBottomTouchListener implements View.OnTouchListener
     private float mTranslationY;
     private float mOriginalY;
 
+    // Hardware layer used while the view is swiped
+    private final SwipeLayerHelper mLayerHelper = new SwipeLayerHelper();
+    private final Animator.AnimatorListener mRestoreLayerListener;
+
     /**
      * The callback interface used by {@link com.android.cards.view.listener.SwipeDismissTopBottomTouchListener} to inform its client
      * about a successful dismissal of the view for which it was created.
@@ -115,6 +121,16 @@ public class SwipeDismissTopBottomTouchListener implements View.OnTouchListener
         mView = view;
         mToken = token;
         mCallbacks = callbacks;
+        mRestoreLayerListener = mLayerHelper.restoreOnEnd(view);
+    }
+
+    /**
+     * Sets if the view is drawn in a hardware layer while it is swiped
+     *
+     * @param enabled
+     */
+    public void setHardwareLayerEnabled(boolean enabled) {
+        mLayerHelper.setEnabled(enabled);
     }
 
     @Override
@@ -175,6 +191,7 @@ public class SwipeDismissTopBottomTouchListener implements View.OnTouchListener
                             .setListener(new AnimatorListenerAdapter() {
                                 @Override
                                 public void onAnimationEnd(Animator animation) {
+                                    mLayerHelper.restore(mView);
                                     performDismiss();
                                 }
                             });
@@ -184,7 +201,7 @@ public class SwipeDismissTopBottomTouchListener implements View.OnTouchListener
                             .translationY(0)
                             .alpha(1)
                             .setDuration(mAnimationTime)
-                            .setListener(null);
+                            .setListener(mRestoreLayerListener);
                 }
                 mVelocityTracker.recycle();
                 mVelocityTracker = null;
@@ -204,7 +221,7 @@ public class SwipeDismissTopBottomTouchListener implements View.OnTouchListener
                         .translationY(0)
                         .alpha(1)
                         .setDuration(mAnimationTime)
-                        .setListener(null);
+                        .setListener(mRestoreLayerListener);
                 mVelocityTracker.recycle();
                 mVelocityTracker = null;
                 mTranslationY = 0;
@@ -226,6 +243,7 @@ public class SwipeDismissTopBottomTouchListener implements View.OnTouchListener
                     mSwiping = true;
                     mSwipingSlop = (deltaY > 0 ? mSlop : 0);
                     mView.getParent().requestDisallowInterceptTouchEvent(true);
+                    mLayerHelper.promote(mView, null);
 
                     // Cancel listview's touch
                     MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
@@ -31,6 +31,7 @@ import android.view.ViewGroup;
 import com.android.cards.R;
 import com.android.cards.internal.Card;
 import com.android.cards.view.base.CardViewWrapper;
+import com.android.cards.view.helper.SwipeLayerHelper;
 
 
 /**
@@ -69,6 +70,10 @@ public class SwipeDismissViewTouchListener implements View.OnTouchListener {
 
     private int swipeDistanceDivisor = 2;
 
+    // Hardware layer used while the card is swiped
+    private final SwipeLayerHelper mLayerHelper = new SwipeLayerHelper();
+    private final Animator.AnimatorListener mRestoreLayerListener;
+
     /**
      * The callback interface used by {@link SwipeDismissViewTouchListener}
      * to inform its client about a successful dismissal of the view for which it was created.
@@ -107,6 +112,17 @@ public class SwipeDismissViewTouchListener implements View.OnTouchListener {
         mToken= card;
         mCallbacks = callbacks;
         swipeDistanceDivisor =  cardView.getContext().getResources().getInteger(R.integer.list_card_swipe_distance_divisor);
+        mRestoreLayerListener = mLayerHelper.restoreOnEnd((View) cardView);
+    }
+
+    /**
+     * Sets the card dismissed by this listener.
+     * It allows to reuse the listener when the card view is bound to another card.
+     *
+     * @param card the card
+     */
+    public void setCard(Card card) {
+        mToken = card;
     }
 
     /**
@@ -119,6 +135,16 @@ public class SwipeDismissViewTouchListener implements View.OnTouchListener {
         mPaused = !enabled;
     }
 
+    /**
+     * Sets if the card is drawn in a hardware layer while it is swiped.
+     * Cards can disable it with {@link Card#setSwipeHardwareLayerEnabled(boolean)}.
+     *
+     * @param enabled
+     */
+    public void setHardwareLayerEnabled(boolean enabled) {
+        mLayerHelper.setEnabled(enabled);
+    }
+
 
     @Override
     public boolean onTouch(View view, MotionEvent motionEvent) {
@@ -180,13 +206,14 @@ public class SwipeDismissViewTouchListener implements View.OnTouchListener {
                             .setListener(new AnimatorListenerAdapter() {
                                 @Override
                                 public void onAnimationEnd(Animator animation) {
+                                    mLayerHelper.restore((View) mCardView);
                                     performDismiss();
                                 }
                             });
                 } else if (mSwiping) {
                     // cancel
                     ((View)mCardView).animate().translationX(0).alpha(1)
-                            .setDuration(mAnimationTime).setListener(null);
+                            .setDuration(mAnimationTime).setListener(mRestoreLayerListener);
                 }
                 mVelocityTracker.recycle();
                 mVelocityTracker = null;
@@ -206,7 +233,7 @@ public class SwipeDismissViewTouchListener implements View.OnTouchListener {
                         .translationX(0)
                         .alpha(1)
                         .setDuration(mAnimationTime)
-                        .setListener(null);
+                        .setListener(mRestoreLayerListener);
                 mVelocityTracker.recycle();
                 mVelocityTracker = null;
                 mTranslationX = 0;
@@ -228,7 +255,8 @@ public class SwipeDismissViewTouchListener implements View.OnTouchListener {
                     mSwiping = true;
                     ((View)mCardView).getParent().requestDisallowInterceptTouchEvent(true);
                     mSwipingSlop = (deltaX > 0 ? mSlop : -mSlop);
-                    
+                    mLayerHelper.promote((View) mCardView, mToken);
+
                     // Cancel ListView's touch (un-highlighting the item)
                     MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
                     cancelEvent
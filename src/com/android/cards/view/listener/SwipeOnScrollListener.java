@@ -42,6 +42,8 @@ public class SwipeOnScrollListener implements AbsListView.OnScrollListener {
     public void onScrollStateChanged(final AbsListView view, final int scrollState) {
         if (mTouchListener != null) {
             mTouchListener.setEnabled(scrollState != AbsListView.OnScrollListener.SCROLL_STATE_TOUCH_SCROLL);
+            if (scrollState == AbsListView.OnScrollListener.SCROLL_STATE_TOUCH_SCROLL)
+                mTouchListener.onScrollStarted();
         }
     }
 
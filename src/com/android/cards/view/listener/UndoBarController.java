@@ -24,7 +24,7 @@ import android.content.res.Resources;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Parcelable;
-import android.text.TextUtils;
+import android.os.SystemClock;
 import android.view.View;
 import android.view.ViewPropertyAnimator;
 import android.widget.TextView;
@@ -32,27 +32,47 @@ import android.widget.TextView;
 import com.android.cards.R;
 import com.android.cards.internal.CardArrayAdapter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * It is based on Roman Nurik code.
  * See this link for original code:
  * https://code.google.com/p/romannurik-code/source/browse/#git%2Fmisc%2Fundobar
- *
+ * </p>
+ * The controller keeps a history of the undo tokens: a new token doesn't commit the previous ones.
+ * Each token expires after {@link #getUndoExpiry()} ms, and the oldest token is committed
+ * when the history exceeds {@link #getUndoHistorySize()} tokens.
+ * The bar displays the message of the newest token and it is hidden when the history is empty.
+ * </p>
+ * The undo button undoes the newest token, a long click on it undoes all the tokens.
+ * You can also use {@link #undo(Parcelable)} and {@link #undoAll()}.
  *
  */
 public class UndoBarController {
 
+    /**
+     * Default number of tokens in the history
+     */
+    public static final int DEFAULT_UNDO_HISTORY_SIZE = 3;
+
     private View mBarView;
     private TextView mMessageView;
     private ViewPropertyAnimator mBarAnimator;
     private Handler mHideHandler = new Handler();
 
     private UndoListener mUndoListener;
-    private UndoBarHideListener mUndoBarHideListener;
 
     // State objects
-    private Parcelable mUndoToken;
+    /**
+     * Undo history, the newest token is the last one
+     */
+    private final ArrayList<UndoEntry> mUndoHistory = new ArrayList<UndoEntry>();
     private CharSequence mUndoMessage;
 
+    private int mUndoHistorySize = DEFAULT_UNDO_HISTORY_SIZE;
+    private long mUndoExpiry;
+
     private UndoBarUIElements mUndoBarUIElements;
 
     /**
@@ -66,14 +86,14 @@ public class UndoBarController {
     }
 
     /**
-     * Interface to listen for when the Undo controller hides the Undo Bar,
-     * after it times out from being shown for the currently dismissed mUndoToken.
+     * Interface to listen for when the Undo controller drops an undo token,
+     * because it expired, it was undone, or it was pushed out of the history.
      */
     public interface UndoBarHideListener {
         /**
-         * Called when the UndoBar is hidden after being shown.
-         * @param undoOccurred true if the user pressed the undo button
-         *                     for the current mUndoToken.
+         * Called when the undo token is removed from the history.
+         * @param undoOccurred true if the user undid the action
+         *                     for this token.
          */
         void onUndoBarHide(boolean undoOccurred);
     }
@@ -86,20 +106,24 @@ public class UndoBarController {
         mBarView = undoBarView;
         mBarAnimator = mBarView.animate();
         mUndoListener = undoListener;
+        mUndoExpiry = mBarView.getResources().getInteger(R.integer.list_card_undobar_hide_delay);
 
         if (undoBarUIElements==null)
             undoBarUIElements = new DefaultUndoBarUIElements();
         mUndoBarUIElements = undoBarUIElements;
 
         mMessageView = (TextView) mBarView.findViewById(mUndoBarUIElements.getUndoBarMessageId());
-        mBarView.findViewById(mUndoBarUIElements.getUndoBarButtonId())
-                .setOnClickListener(new View.OnClickListener() {
+        View undoButton = mBarView.findViewById(mUndoBarUIElements.getUndoBarButtonId());
+        undoButton.setOnClickListener(new View.OnClickListener() {
                     @Override
                     public void onClick(View view) {
-                        hideUndoBar(false);
-                        mUndoListener.onUndo(mUndoToken);
-                        // Remove the reference to the undo token, since the undo has occurred.
-                        mUndoToken = null;
+                        undoLast();
+                    }
+                });
+        undoButton.setOnLongClickListener(new View.OnLongClickListener() {
+                    @Override
+                    public boolean onLongClick(View view) {
+                        return undoAll();
                     }
                 });
 
@@ -114,25 +138,37 @@ public class UndoBarController {
 
 
 
+    /**
+     * Adds the token to the history and shows the bar with its message.
+     * </p>
+     * The previous tokens stay in the history: if the history is full the oldest token
+     * is committed, calling its listener with <code>false</code>.
+     *
+     * @param immediate           <code>true</code> to show the bar without animation
+     * @param message             message to display
+     * @param undoToken           token passed to the {@link UndoListener}
+     * @param undoBarHideListener listener called when the token is removed from the history
+     */
     public void showUndoBar(boolean immediate, CharSequence message,
                             Parcelable undoToken, UndoBarHideListener undoBarHideListener) {
+        showUndoBar(immediate, message, undoToken, undoBarHideListener, SystemClock.uptimeMillis());
+    }
 
-        // We're replacing the existing UndoBarHideListener, meaning that
-        // the original object removal was not undone. So, execute
-        // onUndoBarHide for the previous listener.
-        if (mUndoBarHideListener != null) {
-            mUndoBarHideListener.onUndoBarHide(mUndoToken == null);
-        }
+    /**
+     * Adds the token to the history, with the time used to compute its expiry
+     */
+    private void showUndoBar(boolean immediate, CharSequence message,
+                            Parcelable undoToken, UndoBarHideListener undoBarHideListener, long time) {
 
+        mUndoHistory.add(new UndoEntry(undoToken, message, undoBarHideListener, time));
+        while (mUndoHistory.size() > Math.max(mUndoHistorySize, 1)) {
+            dispatchHide(mUndoHistory.remove(0), false);
+        }
 
-        mUndoToken = undoToken;
         mUndoMessage = message;
-        mUndoBarHideListener = undoBarHideListener;
         mMessageView.setText(mUndoMessage);
 
-        mHideHandler.removeCallbacks(mHideRunnable);
-        mHideHandler.postDelayed(mHideRunnable,
-                mBarView.getResources().getInteger(R.integer.list_card_undobar_hide_delay));
+        scheduleExpiry();
 
         mBarView.setVisibility(View.VISIBLE);
         if (immediate) {
@@ -163,18 +199,19 @@ public class UndoBarController {
         }
     }
 
+    /**
+     * Hides the bar, committing all the tokens in the history
+     *
+     * @param immediate <code>true</code> to hide the bar without animation
+     */
     public void hideUndoBar(boolean immediate) {
         mHideHandler.removeCallbacks(mHideRunnable);
+        commitAll();
+
         if (immediate) {
             mBarView.setVisibility(View.GONE);
             mBarView.setAlpha(0);
             mUndoMessage = null;
-            if (mUndoBarHideListener != null) {
-                // The undo has occurred only if mUndoToken was set to null.
-                mUndoBarHideListener.onUndoBarHide(mUndoToken == null);
-            }
-            mUndoBarHideListener = null;
-            mUndoToken = null;
         } else {
             mBarAnimator.cancel();
 
@@ -188,12 +225,6 @@ public class UndoBarController {
                             public void onAnimationEnd(Animator animation) {
                                 mBarView.setVisibility(View.GONE);
                                 mUndoMessage = null;
-                                if (mUndoBarHideListener != null) {
-                                    // The undo has occurred only if mUndoToken was set to null.
-                                    mUndoBarHideListener.onUndoBarHide(mUndoToken == null);
-                                }
-                                mUndoBarHideListener = null;
-                                mUndoToken = null;
                             }
                         });
             } else if (mUndoBarUIElements.getAnimationType() == UndoBarUIElements.AnimationType.TOPBOTTOM){
@@ -207,43 +238,251 @@ public class UndoBarController {
                             public void onAnimationEnd(Animator animation) {
                                 mBarView.setVisibility(View.GONE);
                                 mUndoMessage = null;
-                                if (mUndoBarHideListener != null) {
-                                    // The undo has occurred only if mUndoToken was set to null.
-                                    mUndoBarHideListener.onUndoBarHide(mUndoToken == null);
-                                }
-                                mUndoBarHideListener = null;
-                                mUndoToken = null;
                             }
                         });
             }
         }
     }
 
-    public void onSaveInstanceState(Bundle outState) {
-        outState.putCharSequence("undo_message", mUndoMessage);
-        outState.putParcelable("undo_token", mUndoToken);
-    }
+    // -------------------------------------------------------------
+    //  Undo history
+    // -------------------------------------------------------------
 
-    public void onRestoreInstanceState(Bundle savedInstanceState) {
-        if (savedInstanceState != null) {
-            mUndoMessage = savedInstanceState.getCharSequence("undo_message");
-            mUndoToken = savedInstanceState.getParcelable("undo_token");
+    /**
+     * Undoes the newest token in the history
+     *
+     * @return <code>true</code> if a token was undone
+     */
+    public boolean undoLast() {
+        if (mUndoHistory.isEmpty())
+            return false;
+        undoEntry(mUndoHistory.remove(mUndoHistory.size() - 1));
+        onHistoryChanged();
+        return true;
+    }
 
-            if (mUndoToken != null || !TextUtils.isEmpty(mUndoMessage)) {
-                showUndoBar(true, mUndoMessage, mUndoToken, mUndoBarHideListener);
+    /**
+     * Undoes a token in the history. The other tokens are not changed.
+     *
+     * @param undoToken token passed to {@link #showUndoBar(boolean, CharSequence, Parcelable, UndoBarHideListener)}
+     * @return <code>true</code> if the token was in the history
+     */
+    public boolean undo(Parcelable undoToken) {
+        for (int i = mUndoHistory.size() - 1; i >= 0; i--) {
+            if (mUndoHistory.get(i).mToken == undoToken) {
+                undoEntry(mUndoHistory.remove(i));
+                onHistoryChanged();
+                return true;
             }
         }
+        return false;
+    }
+
+    /**
+     * Undoes all the tokens in the history, starting from the newest one
+     *
+     * @return <code>true</code> if at least a token was undone
+     */
+    public boolean undoAll() {
+        if (mUndoHistory.isEmpty())
+            return false;
+        while (!mUndoHistory.isEmpty()) {
+            undoEntry(mUndoHistory.remove(mUndoHistory.size() - 1));
+        }
+        onHistoryChanged();
+        return true;
+    }
+
+    /**
+     * Commits all the tokens in the history, starting from the oldest one
+     */
+    private void commitAll() {
+        while (!mUndoHistory.isEmpty()) {
+            dispatchHide(mUndoHistory.remove(0), false);
+        }
+    }
+
+    private void undoEntry(UndoEntry entry) {
+        if (mUndoListener != null)
+            mUndoListener.onUndo(entry.mToken);
+        dispatchHide(entry, true);
+    }
+
+    private void dispatchHide(UndoEntry entry, boolean undoOccurred) {
+        if (entry.mListener != null)
+            entry.mListener.onUndoBarHide(undoOccurred);
+    }
+
+    /**
+     * Displays the message of the newest token, or hides the bar if the history is empty
+     */
+    private void onHistoryChanged() {
+        if (mUndoHistory.isEmpty()) {
+            hideUndoBar(false);
+            return;
+        }
+        mUndoMessage = mUndoHistory.get(mUndoHistory.size() - 1).mMessage;
+        mMessageView.setText(mUndoMessage);
+        scheduleExpiry();
+    }
+
+    /**
+     * Schedules the expiry of the oldest token
+     */
+    private void scheduleExpiry() {
+        mHideHandler.removeCallbacks(mHideRunnable);
+        if (mUndoHistory.isEmpty())
+            return;
+        long delay = mUndoHistory.get(0).mTime + mUndoExpiry - SystemClock.uptimeMillis();
+        mHideHandler.postDelayed(mHideRunnable, Math.max(delay, 0));
     }
 
     private Runnable mHideRunnable = new Runnable() {
         @Override
         public void run() {
-            hideUndoBar(false);
+            long now = SystemClock.uptimeMillis();
+            while (!mUndoHistory.isEmpty() && mUndoHistory.get(0).mTime + mUndoExpiry <= now) {
+                dispatchHide(mUndoHistory.remove(0), false);
+            }
+            onHistoryChanged();
         }
     };
 
+    // -------------------------------------------------------------
+    //  State
+    // -------------------------------------------------------------
+
+    public void onSaveInstanceState(Bundle outState) {
+        ArrayList<Parcelable> tokens = new ArrayList<Parcelable>(mUndoHistory.size());
+        CharSequence[] messages = new CharSequence[mUndoHistory.size()];
+        long[] elapsed = new long[mUndoHistory.size()];
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < mUndoHistory.size(); i++) {
+            tokens.add(mUndoHistory.get(i).mToken);
+            messages[i] = mUndoHistory.get(i).mMessage;
+            elapsed[i] = now - mUndoHistory.get(i).mTime;
+        }
+        outState.putParcelableArrayList("undo_tokens", tokens);
+        outState.putCharSequenceArray("undo_messages", messages);
+        outState.putLongArray("undo_elapsed", elapsed);
+    }
+
+    /**
+     * Restores the history saved by {@link #onSaveInstanceState(Bundle)}.
+     * </p>
+     * Each token keeps the time left before its expiry.
+     * The {@link UndoBarHideListener}s can't be saved: register them again with
+     * {@link #setUndoBarHideListener(Parcelable, UndoBarHideListener)}, using the tokens
+     * returned by {@link #getUndoTokens()}.
+     *
+     * @param savedInstanceState
+     */
+    public void onRestoreInstanceState(Bundle savedInstanceState) {
+        if (savedInstanceState != null) {
+            ArrayList<Parcelable> tokens = savedInstanceState.getParcelableArrayList("undo_tokens");
+            CharSequence[] messages = savedInstanceState.getCharSequenceArray("undo_messages");
+            long[] elapsed = savedInstanceState.getLongArray("undo_elapsed");
+
+            if (tokens != null && messages != null) {
+                long now = SystemClock.uptimeMillis();
+                for (int i = 0; i < tokens.size() && i < messages.length; i++) {
+                    long time = (elapsed != null && i < elapsed.length) ? now - elapsed[i] : now;
+                    showUndoBar(true, messages[i], tokens.get(i), null, time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the listener called when the token is removed from the history.
+     * Use it to register the listeners again after {@link #onRestoreInstanceState(Bundle)}.
+     *
+     * @param undoToken           token in the history
+     * @param undoBarHideListener listener
+     * @return <code>true</code> if the token was in the history
+     */
+    public boolean setUndoBarHideListener(Parcelable undoToken, UndoBarHideListener undoBarHideListener) {
+        for (UndoEntry entry : mUndoHistory) {
+            if (entry.mToken == undoToken) {
+                entry.mListener = undoBarHideListener;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------
+    //  Getters and Setters
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the newest token in the history
+     *
+     * @return the token, or <code>null</code> if the history is empty
+     */
     public Parcelable getUndoToken(){
-        return mUndoToken;
+        if (mUndoHistory.isEmpty())
+            return null;
+        return mUndoHistory.get(mUndoHistory.size() - 1).mToken;
+    }
+
+    /**
+     * Returns the tokens in the history, from the oldest to the newest one
+     *
+     * @return
+     */
+    public List<Parcelable> getUndoTokens() {
+        ArrayList<Parcelable> tokens = new ArrayList<Parcelable>(mUndoHistory.size());
+        for (UndoEntry entry : mUndoHistory) {
+            tokens.add(entry.mToken);
+        }
+        return tokens;
+    }
+
+    /**
+     * Max number of tokens in the history
+     *
+     * @return
+     */
+    public int getUndoHistorySize() {
+        return mUndoHistorySize;
+    }
+
+    /**
+     * Sets the max number of tokens in the history.
+     * Use 1 to commit the previous token when a new one is shown.
+     * The tokens exceeding the new size are committed.
+     *
+     * @param undoHistorySize
+     */
+    public void setUndoHistorySize(int undoHistorySize) {
+        mUndoHistorySize = Math.max(undoHistorySize, 1);
+        if (mUndoHistory.size() > mUndoHistorySize) {
+            while (mUndoHistory.size() > mUndoHistorySize) {
+                dispatchHide(mUndoHistory.remove(0), false);
+            }
+            onHistoryChanged();
+        }
+    }
+
+    /**
+     * Time in ms after which a token is committed
+     *
+     * @return
+     */
+    public long getUndoExpiry() {
+        return mUndoExpiry;
+    }
+
+    /**
+     * Sets the time in ms after which a token is committed.
+     * The default value is <code>R.integer.list_card_undobar_hide_delay</code>.
+     *
+     * @param undoExpiry
+     */
+    public void setUndoExpiry(long undoExpiry) {
+        mUndoExpiry = undoExpiry;
+        scheduleExpiry();
     }
 
     private void setupAnimation(){
@@ -266,10 +505,8 @@ public class UndoBarController {
 
                             @Override
                             public void onDismiss(View view, Object token) {
-                                hideUndoBar(true);
-                                mUndoListener.onUndo(mUndoToken);
-                                // Remove the reference to the undo token, since the undo has occurred.
-                                mUndoToken = null;
+                                //The bar is swiped away: undo all the tokens it displays
+                                undoAllAndHide();
                             }
                         }));
             } else if (mUndoBarUIElements.isEnabledUndoBarSwipeAction() == UndoBarUIElements.SwipeDirectionEnabled.TOPBOTTOM) {
@@ -283,10 +520,8 @@ public class UndoBarController {
 
                             @Override
                             public void onDismiss(View view, Object token) {
-                                hideUndoBar(true);
-                                mUndoListener.onUndo(mUndoToken);
-                                // Remove the reference to the undo token, since the undo has occurred.
-                                mUndoToken = null;
+                                //The bar is swiped away: undo all the tokens it displays
+                                undoAllAndHide();
                             }
                         }));
             }
@@ -294,6 +529,31 @@ public class UndoBarController {
 
     }
 
+    private void undoAllAndHide() {
+        while (!mUndoHistory.isEmpty()) {
+            undoEntry(mUndoHistory.remove(mUndoHistory.size() - 1));
+        }
+        hideUndoBar(true);
+    }
+
+    /**
+     * Token in the history
+     */
+    private static class UndoEntry {
+
+        final Parcelable mToken;
+        final CharSequence mMessage;
+        UndoBarHideListener mListener;
+        final long mTime;
+
+        UndoEntry(Parcelable token, CharSequence message, UndoBarHideListener listener, long time) {
+            mToken = token;
+            mMessage = message;
+            mListener = listener;
+            mTime = time;
+        }
+    }
+
     // -------------------------------------------------------------
     //  Undo Custom Bar
     // -------------------------------------------------------------
@@ -330,7 +590,7 @@ public class UndoBarController {
          * You can't find the cards with these positions in your arrayAdapter because the cards are removed.
          * You have to/can use your id itemIds, to identify your cards.
          *
-         * @param cardArrayAdapter  array Adapter
+         * @param cardArrayAdapter  array Adapter, <code>null</code> when the cards are dismissed from a CardRecyclerView
          * @param itemIds           ids of items
          * @param itemPositions     position of removed items
          * @return